@@ -0,0 +1,71 @@
+package dev.slethware.walletservice.config;
+
+import com.google.api.client.googleapis.auth.oauth2.GoogleAuthorizationCodeFlow;
+import com.google.api.client.googleapis.auth.oauth2.GoogleIdTokenVerifier;
+import com.google.api.client.googleapis.auth.oauth2.GooglePublicKeysManager;
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.http.javanet.NetHttpTransport;
+import com.google.api.client.json.JsonFactory;
+import com.google.api.client.json.gson.GsonFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ResourceLoader;
+
+import java.time.Duration;
+import java.util.Collections;
+
+// Google verifier and OAuth flow are built once so the signing certificates cached inside
+// GooglePublicKeysManager survive across logins.
+@Configuration
+public class GoogleAuthConfig {
+
+    private static final JsonFactory JSON_FACTORY = GsonFactory.getDefaultInstance();
+
+    @Value("${google.client-id}")
+    private String googleClientId;
+
+    @Value("${google.client-secret}")
+    private String googleClientSecret;
+
+    // Optional local copy of Google's certificate map ({"kid": "-----BEGIN CERTIFICATE-----..."}),
+    // used instead of fetching, e.g. to verify offline in tests.
+    @Value("${google.certs-location:}")
+    private String certsLocation;
+
+    @Value("${google.certs-refresh-interval:1h}")
+    private Duration certsRefreshInterval;
+
+    @Bean
+    public HttpTransport googleHttpTransport() {
+        return new NetHttpTransport();
+    }
+
+    @Bean
+    public GooglePublicKeysManager googlePublicKeysManager(HttpTransport googleHttpTransport,
+                                                           ResourceLoader resourceLoader) {
+        HttpTransport certsTransport = certsLocation.isBlank()
+                ? googleHttpTransport
+                : new LocalCertsTransport(resourceLoader.getResource(certsLocation), certsRefreshInterval);
+
+        return new GooglePublicKeysManager.Builder(certsTransport, JSON_FACTORY).build();
+    }
+
+    @Bean
+    public GoogleIdTokenVerifier googleIdTokenVerifier(GooglePublicKeysManager googlePublicKeysManager) {
+        return new GoogleIdTokenVerifier.Builder(googlePublicKeysManager)
+                .setAudience(Collections.singletonList(googleClientId))
+                .build();
+    }
+
+    @Bean
+    public GoogleAuthorizationCodeFlow googleAuthorizationCodeFlow(HttpTransport googleHttpTransport) {
+        return new GoogleAuthorizationCodeFlow.Builder(
+                googleHttpTransport,
+                JSON_FACTORY,
+                googleClientId,
+                googleClientSecret,
+                Collections.singleton("email profile openid")
+        ).build();
+    }
+}
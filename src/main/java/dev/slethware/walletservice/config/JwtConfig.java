@@ -1,5 +1,6 @@
 package dev.slethware.walletservice.config;
 
+import dev.slethware.walletservice.security.JwtKeyRing;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -7,6 +8,8 @@ import org.springframework.context.annotation.Configuration;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
 
 @Configuration
 public class JwtConfig {
@@ -14,8 +17,27 @@ public class JwtConfig {
     @Value("${jwt.secret}")
     private String jwtSecret;
 
+    @Value("${jwt.signing-keys:}")
+    private String jwtSigningKeys;
+
+    @Value("${jwt.active-key-id:}")
+    private String jwtActiveKeyId;
+
+    @Value("${jwt.legacy-tokens-until:}")
+    private String jwtLegacyTokensUntil;
+
+    @Value("${jwt.expiration}")
+    private long jwtExpiration;
+
     @Bean
     public SecretKey jwtSecretKey() {
         return Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
     }
-}
\ No newline at end of file
+
+    @Bean
+    public JwtKeyRing jwtKeyRing(SecretKey jwtSecretKey) {
+        Instant legacyTokensUntil = jwtLegacyTokensUntil.isBlank() ? null : Instant.parse(jwtLegacyTokensUntil);
+        return JwtKeyRing.fromJwkSet(jwtSecretKey, jwtSigningKeys, jwtActiveKeyId,
+                legacyTokensUntil, Duration.ofMillis(jwtExpiration));
+    }
+}
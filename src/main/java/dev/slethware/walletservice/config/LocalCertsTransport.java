@@ -0,0 +1,98 @@
+package dev.slethware.walletservice.config;
+
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.http.LowLevelHttpResponse;
+import org.springframework.core.io.Resource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+
+// Answers every request with the certificate map in a local resource, so GooglePublicKeysManager
+// can verify ID tokens without reaching Google. The resource is re-read on each fetch, and the
+// max-age it is served with tells the manager when to fetch again.
+final class LocalCertsTransport extends HttpTransport {
+
+    private final Resource certs;
+    private final String cacheControl;
+
+    LocalCertsTransport(Resource certs, Duration maxAge) {
+        this.certs = certs;
+        this.cacheControl = "max-age=" + maxAge.toSeconds();
+    }
+
+    @Override
+    protected LowLevelHttpRequest buildRequest(String method, String url) {
+        return new LowLevelHttpRequest() {
+            @Override
+            public void addHeader(String name, String value) {
+            }
+
+            @Override
+            public LowLevelHttpResponse execute() throws IOException {
+                return new CertsResponse(certs.getContentAsByteArray());
+            }
+        };
+    }
+
+    private final class CertsResponse extends LowLevelHttpResponse {
+
+        private final byte[] content;
+
+        CertsResponse(byte[] content) {
+            this.content = content;
+        }
+
+        @Override
+        public InputStream getContent() {
+            return new ByteArrayInputStream(content);
+        }
+
+        @Override
+        public String getContentEncoding() {
+            return null;
+        }
+
+        @Override
+        public long getContentLength() {
+            return content.length;
+        }
+
+        @Override
+        public String getContentType() {
+            return "application/json";
+        }
+
+        @Override
+        public String getStatusLine() {
+            return "HTTP/1.1 200 OK";
+        }
+
+        @Override
+        public int getStatusCode() {
+            return 200;
+        }
+
+        @Override
+        public String getReasonPhrase() {
+            return "OK";
+        }
+
+        @Override
+        public int getHeaderCount() {
+            return 1;
+        }
+
+        @Override
+        public String getHeaderName(int index) {
+            return "Cache-Control";
+        }
+
+        @Override
+        public String getHeaderValue(int index) {
+            return cacheControl;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package dev.slethware.walletservice.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.slethware.walletservice.exception.UnauthorizedException;
+import dev.slethware.walletservice.service.user.UserService;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.UUID;
+
+// Users who committed a write within the window. Their reads stay on the primary until the
+// replica has had time to catch up. The window should exceed the replica's worst normal lag.
+public class ReadYourWritesTracker {
+
+    private final Cache<UUID, Boolean> recentWriters;
+
+    public ReadYourWritesTracker(Duration window, long maxSize) {
+        this.recentWriters = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(window)
+                .build();
+    }
+
+    public boolean recentlyWrote() {
+        UUID userId = currentUserId();
+        return userId != null && recentWriters.getIfPresent(userId) != null;
+    }
+
+    public void recordOnCommit() {
+        UUID userId = currentUserId();
+        if (userId == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recentWriters.put(userId, Boolean.TRUE);
+            }
+        });
+    }
+
+    // Webhooks and other unauthenticated work are not tied to a user
+    private static UUID currentUserId() {
+        try {
+            return UserService.getCurrentUserId();
+        } catch (UnauthorizedException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package dev.slethware.walletservice.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Sends read-only transactions to the replica unless the current user has just written.
+// It must sit behind a LazyConnectionDataSourceProxy: the transaction manager asks for a
+// connection before the read-only flag is bound, so routing has to wait for the first statement.
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+    static final String REPLICA = "replica";
+
+    private final ReadYourWritesTracker readYourWritesTracker;
+
+    public ReplicaRoutingDataSource(ReadYourWritesTracker readYourWritesTracker) {
+        this.readYourWritesTracker = readYourWritesTracker;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return readYourWritesTracker.recentlyWrote() ? PRIMARY : REPLICA;
+        }
+
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            readYourWritesTracker.recordOnCommit();
+        }
+        return PRIMARY;
+    }
+}
@@ -0,0 +1,42 @@
+package dev.slethware.walletservice.controller;
+
+import dev.slethware.walletservice.security.JwtKeyRing;
+import io.jsonwebtoken.security.Jwks;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.stream.Collectors;
+
+@RestController
+@RequiredArgsConstructor
+@Tag(name = "Token Keys", description = "Public keys for verifying access tokens")
+public class JwksController {
+
+    private final JwtKeyRing jwtKeyRing;
+
+    @GetMapping("/.well-known/jwks.json")
+    @Operation(
+            summary = "JSON Web Key Set",
+            description = "Public keys used to sign access tokens. Empty when tokens are signed with the shared HS256 secret."
+    )
+    @io.swagger.v3.oas.annotations.responses.ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Key set retrieved successfully")
+    })
+    public ResponseEntity<String> getJwks() {
+        String keys = jwtKeyRing.getPublicJwks().stream()
+                .map(Jwks::json)
+                .collect(Collectors.joining(","));
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.maxAge(Duration.ofMinutes(5)).cachePublic())
+                .body("{\"keys\":[" + keys + "]}");
+    }
+}
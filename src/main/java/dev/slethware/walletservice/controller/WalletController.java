@@ -1,9 +1,15 @@
 package dev.slethware.walletservice.controller;
 
+import dev.slethware.walletservice.exception.BadRequestException;
+import dev.slethware.walletservice.models.dtos.request.BalanceStripesRequest;
+import dev.slethware.walletservice.models.dtos.request.BatchTransferRequest;
 import dev.slethware.walletservice.models.dtos.request.DepositRequest;
 import dev.slethware.walletservice.models.dtos.request.TransferRequest;
 import dev.slethware.walletservice.models.dtos.request.WithdrawRequest;
 import dev.slethware.walletservice.models.dtos.response.*;
+import dev.slethware.walletservice.models.enums.TransactionExportFormat;
+import dev.slethware.walletservice.models.enums.TransactionType;
+import dev.slethware.walletservice.service.idempotency.IdempotencyService;
 import dev.slethware.walletservice.service.wallet.WalletService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -12,14 +18,23 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.Duration;
+import java.time.LocalDate;
 import java.util.Map;
 
 @Slf4j
@@ -29,7 +44,14 @@ import java.util.Map;
 @Tag(name = "Wallet Management", description = "Endpoints for wallet operations")
 public class WalletController {
 
+    private static final String IDEMPOTENCY_KEY_DESCRIPTION =
+            "Optional client-generated key. Retrying with the same key returns the original response instead of repeating the operation.";
+
     private final WalletService walletService;
+    private final IdempotencyService idempotencyService;
+
+    @Value("${wallet.export.timeout:30m}")
+    private Duration exportTimeout;
 
     @PostMapping("/deposit")
     @SecurityRequirement(name = "bearerAuth")
@@ -41,12 +63,16 @@ public class WalletController {
     )
     @io.swagger.v3.oas.annotations.responses.ApiResponses(value = {
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Deposit initiated successfully"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "409", description = "A request with the same Idempotency-Key is still in progress"),
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Invalid request"),
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "401", description = "Unauthorized"),
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "403", description = "Permission denied")
     })
-    public ResponseEntity<ApiResponse<DepositResponse>> initiateDeposit(@Valid @RequestBody DepositRequest request) {
-        return ResponseEntity.ok(walletService.initiateDeposit(request));
+    public ResponseEntity<ApiResponse<DepositResponse>> initiateDeposit(
+            @Valid @RequestBody DepositRequest request,
+            @Parameter(description = IDEMPOTENCY_KEY_DESCRIPTION) @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return ResponseEntity.ok(idempotencyService.execute(idempotencyKey, "deposit", request, DepositResponse.class,
+                () -> walletService.initiateDeposit(request)));
     }
 
     @PostMapping("/paystack/webhook")
@@ -114,13 +140,39 @@ public class WalletController {
     )
     @io.swagger.v3.oas.annotations.responses.ApiResponses(value = {
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Transfer completed successfully"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "409", description = "A request with the same Idempotency-Key is still in progress"),
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Invalid request or insufficient balance"),
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "401", description = "Unauthorized"),
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "403", description = "Permission denied"),
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Recipient wallet not found")
     })
-    public ResponseEntity<ApiResponse<TransferResponse>> transfer(@Valid @RequestBody TransferRequest request) {
-        return ResponseEntity.ok(walletService.transfer(request));
+    public ResponseEntity<ApiResponse<TransferResponse>> transfer(
+            @Valid @RequestBody TransferRequest request,
+            @Parameter(description = IDEMPOTENCY_KEY_DESCRIPTION) @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return ResponseEntity.ok(idempotencyService.execute(idempotencyKey, "transfer", request, TransferResponse.class,
+                () -> walletService.transfer(request)));
+    }
+
+    @PostMapping("/transfers/batch")
+    @SecurityRequirement(name = "bearerAuth")
+    @SecurityRequirement(name = "apiKey")
+    @PreAuthorize("hasAuthority('PERMISSION_TRANSFER')")
+    @Operation(
+            summary = "Batch Transfer",
+            description = "Send many transfers from your wallet in one request and one database transaction. Legs are applied in order; a leg that cannot be applied (unknown wallet, insufficient balance) is reported as failed without affecting the others. Amounts are in kobo. Requires JWT or API key with 'transfer' permission."
+    )
+    @io.swagger.v3.oas.annotations.responses.ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Batch processed, see per-transfer results"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "409", description = "A request with the same Idempotency-Key is still in progress"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Invalid request or too many transfers"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "401", description = "Unauthorized"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "403", description = "Permission denied")
+    })
+    public ResponseEntity<ApiResponse<BatchTransferResponse>> transferBatch(
+            @Valid @RequestBody BatchTransferRequest request,
+            @Parameter(description = IDEMPOTENCY_KEY_DESCRIPTION) @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return ResponseEntity.ok(idempotencyService.execute(idempotencyKey, "batch-transfer", request, BatchTransferResponse.class,
+                () -> walletService.transferBatch(request)));
     }
 
     @PostMapping("/withdraw")
@@ -132,13 +184,35 @@ public class WalletController {
     )
     @io.swagger.v3.oas.annotations.responses.ApiResponses(value = {
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Withdrawal completed successfully"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "409", description = "A request with the same Idempotency-Key is still in progress"),
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Invalid request or insufficient balance"),
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "401", description = "Unauthorized"),
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "403", description = "API keys cannot access withdrawal endpoint"),
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Wallet not found")
     })
-    public ResponseEntity<ApiResponse<WithdrawResponse>> withdraw(@Valid @RequestBody WithdrawRequest request) {
-        return ResponseEntity.ok(walletService.withdraw(request));
+    public ResponseEntity<ApiResponse<WithdrawResponse>> withdraw(
+            @Valid @RequestBody WithdrawRequest request,
+            @Parameter(description = IDEMPOTENCY_KEY_DESCRIPTION) @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return ResponseEntity.ok(idempotencyService.execute(idempotencyKey, "withdraw", request, WithdrawResponse.class,
+                () -> walletService.withdraw(request)));
+    }
+
+    @PutMapping("/stripes")
+    @SecurityRequirement(name = "bearerAuth")
+    @PreAuthorize("hasAuthority('PERMISSION_WITHDRAW')")
+    @Operation(
+            summary = "Configure Balance Stripes",
+            description = "Split incoming credits for a high-volume wallet across N balance stripes so they do not serialize on one row. Debits sweep stripes back into the wallet and the reported balance includes them. Use 0 to disable. Only accessible via JWT."
+    )
+    @io.swagger.v3.oas.annotations.responses.ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Balance stripes updated successfully"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Invalid stripe count"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "401", description = "Unauthorized"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "403", description = "API keys cannot configure balance stripes"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Wallet not found")
+    })
+    public ResponseEntity<ApiResponse<BalanceResponse>> configureBalanceStripes(@Valid @RequestBody BalanceStripesRequest request) {
+        return ResponseEntity.ok(walletService.configureBalanceStripes(request));
     }
 
     @GetMapping("/transactions")
@@ -162,4 +236,72 @@ public class WalletController {
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
         return ResponseEntity.ok(walletService.getTransactions(pageable));
     }
-}
\ No newline at end of file
+
+    @GetMapping("/transactions/export")
+    @SecurityRequirement(name = "bearerAuth")
+    @SecurityRequirement(name = "apiKey")
+    @PreAuthorize("hasAuthority('PERMISSION_READ')")
+    @Operation(
+            summary = "Export Transaction History",
+            description = "Stream the full transaction history, oldest first, as CSV or newline-delimited JSON. Dates are inclusive; omit them for the whole history. Amounts are in kobo. Requires JWT or API key with 'read' permission."
+    )
+    @io.swagger.v3.oas.annotations.responses.ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Export streamed"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Invalid format or date range"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "401", description = "Unauthorized"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "403", description = "Permission denied"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Wallet not found"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "429", description = "Too many exports are running")
+    })
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @Parameter(description = "csv or ndjson") @RequestParam(defaultValue = "csv") String format,
+            @Parameter(description = "First day to include (yyyy-MM-dd)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Last day to include (yyyy-MM-dd)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @Parameter(description = "Only this transaction type: deposit, transfer or withdrawal") @RequestParam(required = false) String type,
+            NativeWebRequest webRequest) {
+
+        TransactionExportFormat exportFormat = TransactionExportFormat.from(format);
+        StreamingResponseBody body = walletService.exportTransactions(exportFormat, from, to, parseTransactionType(type));
+
+        // Only exports get the long timeout; other async requests keep the default
+        WebAsyncUtils.getAsyncManager(webRequest).getAsyncWebRequest().setTimeout(exportTimeout.toMillis());
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"transactions." + exportFormat.getExtension() + "\"")
+                .body(body);
+    }
+
+    @GetMapping("/transactions/cursor")
+    @SecurityRequirement(name = "bearerAuth")
+    @SecurityRequirement(name = "apiKey")
+    @PreAuthorize("hasAuthority('PERMISSION_READ')")
+    @Operation(
+            summary = "Get Transaction History by Cursor",
+            description = "Retrieve transaction history newest first without total counts. Pass the returned nextCursor to fetch the following page; pages stay equally fast however deep they go. Amounts are in kobo. Requires JWT or API key with 'read' permission."
+    )
+    @io.swagger.v3.oas.annotations.responses.ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Transactions retrieved successfully"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Invalid cursor or page size"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "401", description = "Unauthorized"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "403", description = "Permission denied"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Wallet not found")
+    })
+    public ResponseEntity<ApiResponse<TransactionCursorPage>> getTransactionsByCursor(
+            @Parameter(description = "Cursor from the previous page; omit for the first page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size") @RequestParam(defaultValue = "20") int size) {
+
+        return ResponseEntity.ok(walletService.getTransactionsByCursor(cursor, size));
+    }
+
+    private static TransactionType parseTransactionType(String type) {
+        if (type == null || type.isBlank()) {
+            return null;
+        }
+        try {
+            return TransactionType.valueOf(type.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Unknown transaction type: " + type);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package dev.slethware.walletservice.exception;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@Getter
+@Setter
+@ResponseStatus(HttpStatus.CONFLICT)
+public class ConflictException extends RuntimeException {
+    private HttpStatus status = HttpStatus.CONFLICT;
+
+    public ConflictException(String message) {
+        super(message);
+    }
+}
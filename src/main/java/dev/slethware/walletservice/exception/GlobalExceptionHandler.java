@@ -3,6 +3,7 @@ package dev.slethware.walletservice.exception;
 import dev.slethware.walletservice.models.dtos.response.ErrorResponse;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
@@ -75,6 +76,45 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return new ResponseEntity<>(response, HttpStatus.INTERNAL_SERVER_ERROR);
     }
 
+    @ExceptionHandler(ConflictException.class)
+    public ResponseEntity<ErrorResponse> handleConflictException(ConflictException e) {
+        log.error(e.getMessage(), e);
+
+        ErrorResponse response = ErrorResponse.builder()
+                .message(e.getMessage())
+                .error("Conflict")
+                .statusCode(HttpStatus.CONFLICT.value())
+                .build();
+
+        return new ResponseEntity<>(response, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ErrorResponse> handleTooManyRequestsException(TooManyRequestsException e) {
+        log.warn(e.getMessage());
+
+        ErrorResponse response = ErrorResponse.builder()
+                .message(e.getMessage())
+                .error("Too Many Requests")
+                .statusCode(HttpStatus.TOO_MANY_REQUESTS.value())
+                .build();
+
+        return new ResponseEntity<>(response, HttpStatus.TOO_MANY_REQUESTS);
+    }
+
+    @ExceptionHandler(ConcurrencyFailureException.class)
+    public ResponseEntity<ErrorResponse> handleConcurrencyFailureException(ConcurrencyFailureException e) {
+        log.error(e.getMessage(), e);
+
+        ErrorResponse response = ErrorResponse.builder()
+                .message("The request conflicted with a concurrent update, please retry")
+                .error("Conflict")
+                .statusCode(HttpStatus.CONFLICT.value())
+                .build();
+
+        return new ResponseEntity<>(response, HttpStatus.CONFLICT);
+    }
+
     @Override
     protected ResponseEntity<Object> handleHttpRequestMethodNotSupported(
             HttpRequestMethodNotSupportedException ex,
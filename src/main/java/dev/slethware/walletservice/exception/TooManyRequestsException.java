@@ -0,0 +1,17 @@
+package dev.slethware.walletservice.exception;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@Getter
+@Setter
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class TooManyRequestsException extends RuntimeException {
+    private HttpStatus status = HttpStatus.TOO_MANY_REQUESTS;
+
+    public TooManyRequestsException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,14 @@
+package dev.slethware.walletservice.models.dtos.request;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Builder;
+
+@Builder
+public record BalanceStripesRequest(
+        @NotNull(message = "Stripe count is required")
+        @Min(value = 0, message = "Stripe count cannot be negative")
+        @Max(value = 64, message = "Stripe count cannot exceed 64")
+        Integer stripes
+) {}
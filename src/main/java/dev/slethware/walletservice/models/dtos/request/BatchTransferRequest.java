@@ -0,0 +1,13 @@
+package dev.slethware.walletservice.models.dtos.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Builder;
+
+import java.util.List;
+
+@Builder
+public record BatchTransferRequest(
+        @NotEmpty(message = "At least one transfer is required")
+        List<@Valid TransferRequest> transfers
+) {}
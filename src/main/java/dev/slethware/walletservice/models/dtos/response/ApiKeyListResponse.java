@@ -13,5 +13,7 @@ public record ApiKeyListResponse(
         List<String> permissions,
         LocalDateTime expiresAt,
         boolean revoked,
-        LocalDateTime createdAt
+        LocalDateTime createdAt,
+        LocalDateTime lastUsedAt,
+        long usageCount
 ) {}
\ No newline at end of file
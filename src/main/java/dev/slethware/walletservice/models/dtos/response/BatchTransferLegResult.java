@@ -0,0 +1,13 @@
+package dev.slethware.walletservice.models.dtos.response;
+
+import lombok.Builder;
+
+@Builder
+public record BatchTransferLegResult(
+        int index,
+        String walletNumber,
+        Long amount,
+        String reference,
+        String status,
+        String message
+) {}
@@ -0,0 +1,14 @@
+package dev.slethware.walletservice.models.dtos.response;
+
+import lombok.Builder;
+
+import java.util.List;
+
+@Builder
+public record BatchTransferResponse(
+        String reference,
+        int succeeded,
+        int failed,
+        long totalAmount,
+        List<BatchTransferLegResult> transfers
+) {}
@@ -0,0 +1,12 @@
+package dev.slethware.walletservice.models.dtos.response;
+
+import lombok.Builder;
+
+import java.util.List;
+
+@Builder
+public record TransactionCursorPage(
+        List<TransactionResponse> transactions,
+        String nextCursor,
+        boolean hasNext
+) {}
@@ -2,6 +2,7 @@ package dev.slethware.walletservice.models.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
 
@@ -12,8 +13,10 @@ import java.util.List;
 @Table(name = "api_keys", indexes = {
         @Index(name = "idx_user_id", columnList = "user_id"),
         @Index(name = "idx_key_hash", columnList = "key_hash", unique = true),
+        @Index(name = "idx_key_prefix", columnList = "key_prefix", unique = true),
         @Index(name = "idx_expires_at", columnList = "expires_at")
 })
+@DynamicUpdate // Keeps entity saves from overwriting usage counters written by ApiKeyUsageTracker
 @Getter
 @Setter
 @NoArgsConstructor
@@ -29,6 +32,9 @@ public class ApiKey extends Auditable {
     @Column(nullable = false)
     private String name;
 
+    @Column(name = "key_prefix", unique = true, length = 16)
+    private String keyPrefix; // Null for keys issued before prefixed keys
+
     @Column(name = "key_hash", unique = true, nullable = false)
     private String keyHash;
 
@@ -42,6 +48,12 @@ public class ApiKey extends Auditable {
     @Column(nullable = false)
     private boolean revoked = false;
 
+    @Column(name = "last_used_at")
+    private LocalDateTime lastUsedAt;
+
+    @Column(name = "usage_count", nullable = false, columnDefinition = "bigint default 0")
+    private long usageCount; // Written behind by ApiKeyUsageTracker
+
     public boolean isActive() {
         return !revoked && LocalDateTime.now().isBefore(expiresAt);
     }
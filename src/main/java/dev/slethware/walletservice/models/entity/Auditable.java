@@ -15,8 +15,9 @@ import java.util.UUID;
 @MappedSuperclass
 @EntityListeners(AuditingEntityListener.class)
 public abstract class Auditable {
+    // Time-ordered so inserts append to the primary key index instead of splitting random pages
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7Id
     @Column(columnDefinition = "UUID")
     private UUID id;
 
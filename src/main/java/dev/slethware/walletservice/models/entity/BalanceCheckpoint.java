@@ -0,0 +1,31 @@
+package dev.slethware.walletservice.models.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Folded balance of every posting on an account created before the watermark.
+@Entity
+@Table(name = "balance_checkpoints")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BalanceCheckpoint {
+
+    @Id
+    @Column(name = "account_id", columnDefinition = "UUID")
+    private UUID accountId;
+
+    @Column(nullable = false)
+    private long balance;
+
+    @Column(nullable = false)
+    private LocalDateTime watermark;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,30 @@
+package dev.slethware.walletservice.models.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.util.UUID;
+
+// Funds the in-memory engine held under a reference when its last snapshot was written.
+@Entity
+@Table(name = "memory_engine_holds")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MemoryEngineHold {
+
+    @Id
+    @Column(length = 64)
+    private String reference;
+
+    @Column(name = "from_wallet_id", columnDefinition = "UUID")
+    private UUID fromWalletId;
+
+    @Column(name = "to_wallet_id", columnDefinition = "UUID")
+    private UUID toWalletId;
+
+    @Column(nullable = false)
+    private long amount;
+}
@@ -0,0 +1,27 @@
+package dev.slethware.walletservice.models.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// Last journal sequence of the in-memory engine whose balances are reflected in the wallets table.
+@Entity
+@Table(name = "memory_engine_state")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MemoryEngineState {
+
+    @Id
+    @Column(length = 50)
+    private String name;
+
+    @Column(name = "applied_sequence", nullable = false)
+    private long appliedSequence;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,42 @@
+package dev.slethware.walletservice.models.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+import java.util.UUID;
+
+// One side of a balanced ledger entry. Rows are only ever inserted: the postings sharing a
+// journal id sum to zero, and an account's balance is its checkpoint plus the postings after it.
+// created_at is filled in by the database with the start of the inserting transaction, so every
+// posting a still-open transaction will commit is stamped no earlier than that transaction began.
+@Entity
+@Immutable
+@AttributeOverride(name = "createdAt", column = @Column(name = "created_at", insertable = false, updatable = false,
+        columnDefinition = "timestamp(6) DEFAULT LOCALTIMESTAMP NOT NULL"))
+@Table(name = "postings", indexes = {
+        @Index(name = "idx_posting_account_created", columnList = "account_id, created_at"),
+        @Index(name = "idx_posting_journal", columnList = "journal_id"),
+        @Index(name = "idx_posting_created_at", columnList = "created_at")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+@Builder
+public class Posting extends Auditable {
+
+    @Column(name = "journal_id", nullable = false, columnDefinition = "UUID")
+    private UUID journalId;
+
+    // A wallet id, or one of the system accounts in LedgerAccounts
+    @Column(name = "account_id", nullable = false, columnDefinition = "UUID")
+    private UUID accountId;
+
+    @Column(nullable = false)
+    private long amount; // Signed, in kobo: positive credits, negative debits
+
+    @Column(nullable = false, length = 64)
+    private String reference;
+}
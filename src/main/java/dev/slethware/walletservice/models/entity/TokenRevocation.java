@@ -0,0 +1,33 @@
+package dev.slethware.walletservice.models.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "token_revocations", indexes = {
+        @Index(name = "idx_token_revocation_created_at", columnList = "created_at"),
+        @Index(name = "idx_token_revocation_expires_at", columnList = "expires_at")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+@Builder
+public class TokenRevocation extends Auditable {
+
+    @Column(name = "token_id", unique = true)
+    private String tokenId; // Null when every session issued before issuedBefore is revoked
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Column(name = "issued_before")
+    private LocalDateTime issuedBefore;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt; // Entry can be purged once every token it covers has expired
+}
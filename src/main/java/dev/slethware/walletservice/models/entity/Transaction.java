@@ -16,7 +16,9 @@ import java.util.Map;
         @Index(name = "idx_wallet_id", columnList = "wallet_id"),
         @Index(name = "idx_reference", columnList = "reference", unique = true),
         @Index(name = "idx_status", columnList = "status"),
-        @Index(name = "idx_created_at", columnList = "created_at")
+        @Index(name = "idx_created_at", columnList = "created_at"),
+        // Serves keyset-paged history: one range scan per page, in page order
+        @Index(name = "idx_wallet_created_at_id", columnList = "wallet_id, created_at DESC, id")
 })
 @Getter
 @Setter
@@ -26,8 +28,9 @@ import java.util.Map;
 @Builder
 public class Transaction extends Auditable {
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "wallet_id", nullable = false)
+    @EqualsAndHashCode.Exclude
     private Wallet wallet;
 
     @Enumerated(EnumType.STRING)
@@ -41,6 +44,8 @@ public class Transaction extends Auditable {
     @Column(nullable = false, length = 20)
     private TransactionStatus status;
 
+    // Once the table is partitioned the unique index cannot cover reference alone; there
+    // db/partition-transactions.sql enforces it through the transaction_references table
     @Column(unique = true, nullable = false)
     private String reference;
 
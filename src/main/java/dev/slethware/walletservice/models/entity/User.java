@@ -6,6 +6,7 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 
@@ -33,15 +34,23 @@ public class User extends Auditable implements UserDetails {
     @Column(nullable = false)
     private boolean enabled = true;
 
+    // Set directly in the database; grants the actuator endpoints beyond health
+    @Column(nullable = false, columnDefinition = "boolean default false")
+    private boolean admin;
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         // Grant all permissions to standard users.
-        return List.of(
+        List<GrantedAuthority> authorities = new ArrayList<>(List.of(
                 new SimpleGrantedAuthority("PERMISSION_DEPOSIT"),
                 new SimpleGrantedAuthority("PERMISSION_TRANSFER"),
                 new SimpleGrantedAuthority("PERMISSION_READ"),
                 new SimpleGrantedAuthority("PERMISSION_WITHDRAW") // Withdraw permission exclusive only to Users
-        );
+        ));
+        if (admin) {
+            authorities.add(new SimpleGrantedAuthority("PERMISSION_ADMIN"));
+        }
+        return authorities;
     }
 
     @Override
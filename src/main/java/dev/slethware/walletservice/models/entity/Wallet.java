@@ -18,8 +18,9 @@ import java.math.RoundingMode;
 @Builder
 public class Wallet extends Auditable {
 
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
+    @EqualsAndHashCode.Exclude
     private User user;
 
     @Column(name = "wallet_number", unique = true, nullable = false, length = 10)
@@ -28,6 +29,15 @@ public class Wallet extends Auditable {
     @Column(nullable = false)
     private Long balance = 0L;
 
+    // Number of wallet_balance_stripes rows that take credits for this wallet; 0 means unstriped.
+    @Column(name = "stripe_count", nullable = false, columnDefinition = "integer default 0")
+    private int stripeCount;
+
+    // Bulk updates that bypass the entity must increment this as well, or optimistic writers miss them.
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private long version;
+
     public BigDecimal getBalanceInNaira() {
         return BigDecimal.valueOf(balance).divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
     }
@@ -0,0 +1,27 @@
+package dev.slethware.walletservice.models.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+@Entity
+@Table(name = "wallet_balance_stripes", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_wallet_stripe", columnNames = {"wallet_id", "stripe_index"})
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+@Builder
+public class WalletBalanceStripe extends Auditable {
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "wallet_id", nullable = false)
+    private Wallet wallet;
+
+    @Column(name = "stripe_index", nullable = false)
+    private int stripeIndex;
+
+    @Column(nullable = false)
+    private long balance; // Stored in kobo
+}
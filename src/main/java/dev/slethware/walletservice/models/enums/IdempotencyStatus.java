@@ -0,0 +1,6 @@
+package dev.slethware.walletservice.models.enums;
+
+public enum IdempotencyStatus {
+    PENDING,
+    COMPLETED
+}
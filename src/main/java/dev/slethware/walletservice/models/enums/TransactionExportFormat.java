@@ -0,0 +1,33 @@
+package dev.slethware.walletservice.models.enums;
+
+import dev.slethware.walletservice.exception.BadRequestException;
+
+public enum TransactionExportFormat {
+    CSV("text/csv", "csv"),
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final String contentType;
+    private final String extension;
+
+    TransactionExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public static TransactionExportFormat from(String format) {
+        for (TransactionExportFormat value : values()) {
+            if (value.extension.equalsIgnoreCase(format)) {
+                return value;
+            }
+        }
+        throw new BadRequestException("Unsupported export format: " + format);
+    }
+}
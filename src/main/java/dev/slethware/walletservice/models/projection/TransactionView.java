@@ -0,0 +1,11 @@
+package dev.slethware.walletservice.models.projection;
+
+import dev.slethware.walletservice.models.enums.TransactionStatus;
+import dev.slethware.walletservice.models.enums.TransactionType;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public record TransactionView(UUID id, TransactionType type, Long amount, TransactionStatus status,
+                              String reference, LocalDateTime createdAt) {
+}
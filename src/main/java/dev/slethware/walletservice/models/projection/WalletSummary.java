@@ -0,0 +1,7 @@
+package dev.slethware.walletservice.models.projection;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public record WalletSummary(UUID id, String walletNumber, LocalDateTime createdAt) {
+}
@@ -2,11 +2,21 @@ package dev.slethware.walletservice.repository;
 
 import dev.slethware.walletservice.models.entity.ApiKey;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 public interface ApiKeyRepository extends JpaRepository<ApiKey, UUID> {
     List<ApiKey> findByUserIdAndRevokedFalse(UUID userId);
     long countByUserIdAndRevokedFalseAndExpiresAtAfter(UUID userId, java.time.LocalDateTime now);
+    Optional<ApiKey> findByKeyPrefix(String keyPrefix);
+    Optional<ApiKey> findByKeyHash(String keyHash);
+
+    @Query("SELECT k FROM ApiKey k WHERE k.keyPrefix IS NULL AND k.keyHash LIKE '$2%' " +
+            "AND k.revoked = false AND k.expiresAt > :now")
+    List<ApiKey> findActiveBcryptHashedKeys(@Param("now") LocalDateTime now);
 }
\ No newline at end of file
@@ -0,0 +1,43 @@
+package dev.slethware.walletservice.repository;
+
+import dev.slethware.walletservice.models.entity.BalanceCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public interface BalanceCheckpointRepository extends JpaRepository<BalanceCheckpoint, UUID> {
+
+    // Folds every posting between an account's watermark and the new one into its checkpoint.
+    @Transactional
+    @Modifying
+    @Query(value = """
+            INSERT INTO balance_checkpoints (account_id, balance, watermark, updated_at)
+            SELECT p.account_id, COALESCE(c.balance, 0) + SUM(p.amount), :watermark, now()
+            FROM postings p
+            LEFT JOIN balance_checkpoints c ON c.account_id = p.account_id
+            WHERE p.created_at < :watermark AND (c.watermark IS NULL OR p.created_at >= c.watermark)
+            GROUP BY p.account_id, c.balance
+            ON CONFLICT (account_id) DO UPDATE
+            SET balance = EXCLUDED.balance, watermark = EXCLUDED.watermark, updated_at = EXCLUDED.updated_at
+            """, nativeQuery = true)
+    int advanceTo(@Param("watermark") LocalDateTime watermark);
+
+    // Opening balances for wallets that held funds before the ledger was enabled. The genesis
+    // watermark makes every posting on the wallet count on top of it.
+    @Transactional
+    @Modifying
+    @Query(value = """
+            INSERT INTO balance_checkpoints (account_id, balance, watermark, updated_at)
+            SELECT w.id, w.balance + COALESCE((SELECT SUM(s.balance) FROM wallet_balance_stripes s WHERE s.wallet_id = w.id), 0),
+                   :genesis, now()
+            FROM wallets w
+            WHERE NOT EXISTS (SELECT 1 FROM balance_checkpoints c WHERE c.account_id = w.id)
+            ON CONFLICT (account_id) DO NOTHING
+            """, nativeQuery = true)
+    int seedFromWallets(@Param("genesis") LocalDateTime genesis);
+}
@@ -0,0 +1,45 @@
+package dev.slethware.walletservice.repository;
+
+import dev.slethware.walletservice.models.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, UUID> {
+    Optional<IdempotencyRecord> findByUserIdAndIdempotencyKey(UUID userId, String idempotencyKey);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+
+    // A PENDING record claimed before staleBefore belongs to a request that died without committing
+    @Transactional
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.claimId = :claimId, r.claimedAt = :now " +
+            "WHERE r.id = :id AND r.status = dev.slethware.walletservice.models.enums.IdempotencyStatus.PENDING " +
+            "AND (r.claimedAt IS NULL OR r.claimedAt < :staleBefore)")
+    int reclaim(@Param("id") UUID id,
+                @Param("claimId") UUID claimId,
+                @Param("now") LocalDateTime now,
+                @Param("staleBefore") LocalDateTime staleBefore);
+
+    // Runs inside the operation's transaction, so the result is stored exactly when the operation commits
+    @Transactional
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.status = dev.slethware.walletservice.models.enums.IdempotencyStatus.COMPLETED, " +
+            "r.responseBody = :responseBody WHERE r.id = :id AND r.claimId = :claimId " +
+            "AND r.status = dev.slethware.walletservice.models.enums.IdempotencyStatus.PENDING")
+    int complete(@Param("id") UUID id, @Param("claimId") UUID claimId, @Param("responseBody") String responseBody);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.id = :id AND r.claimId = :claimId")
+    int release(@Param("id") UUID id, @Param("claimId") UUID claimId);
+}
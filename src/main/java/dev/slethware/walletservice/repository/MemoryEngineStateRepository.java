@@ -0,0 +1,20 @@
+package dev.slethware.walletservice.repository;
+
+import dev.slethware.walletservice.models.entity.MemoryEngineState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface MemoryEngineStateRepository extends JpaRepository<MemoryEngineState, String> {
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO memory_engine_state (name, applied_sequence, updated_at)
+            VALUES (:name, :sequence, now())
+            ON CONFLICT (name) DO UPDATE
+            SET applied_sequence = GREATEST(memory_engine_state.applied_sequence, EXCLUDED.applied_sequence),
+                updated_at = EXCLUDED.updated_at
+            """, nativeQuery = true)
+    int advanceTo(@Param("name") String name, @Param("sequence") long sequence);
+}
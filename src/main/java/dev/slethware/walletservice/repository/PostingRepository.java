@@ -0,0 +1,15 @@
+package dev.slethware.walletservice.repository;
+
+import dev.slethware.walletservice.models.entity.Posting;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public interface PostingRepository extends JpaRepository<Posting, UUID> {
+
+    @Query("SELECT COALESCE(SUM(p.amount), 0) FROM Posting p WHERE p.accountId = :accountId AND p.createdAt >= :since")
+    long sumAmountSince(@Param("accountId") UUID accountId, @Param("since") LocalDateTime since);
+}
@@ -0,0 +1,22 @@
+package dev.slethware.walletservice.repository;
+
+import dev.slethware.walletservice.models.entity.TokenRevocation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public interface TokenRevocationRepository extends JpaRepository<TokenRevocation, UUID> {
+    List<TokenRevocation> findByExpiresAtAfter(LocalDateTime now);
+    List<TokenRevocation> findByCreatedAtAfter(LocalDateTime since);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM TokenRevocation r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
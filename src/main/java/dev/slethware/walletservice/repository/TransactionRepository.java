@@ -1,22 +1,76 @@
 package dev.slethware.walletservice.repository;
 
 import dev.slethware.walletservice.models.entity.Transaction;
+import dev.slethware.walletservice.models.enums.TransactionType;
+import dev.slethware.walletservice.models.projection.TransactionView;
 import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public interface TransactionRepository extends JpaRepository<Transaction, UUID> {
-    Optional<Transaction> findByReference(String reference);
-    Page<Transaction> findByWalletIdOrderByCreatedAtDesc(UUID walletId, Pageable pageable);
+    // Read paths select straight into TransactionView, so no entity is loaded or tracked. Every
+    // query bounds createdAt so that Postgres only visits the matching monthly partitions.
+    String VIEW = "SELECT new dev.slethware.walletservice.models.projection.TransactionView(" +
+            "t.id, t.type, t.amount, t.status, t.reference, t.createdAt) FROM Transaction t ";
+
+    @Query(VIEW + "WHERE t.reference = :reference AND t.createdAt >= :from AND t.createdAt < :to")
+    Optional<TransactionView> findViewByReference(@Param("reference") String reference,
+                                                  @Param("from") LocalDateTime from,
+                                                  @Param("to") LocalDateTime to);
+
+    // A wallet has no transactions from before it was created, which is the lower bound of its history.
+    @Query(value = VIEW + "WHERE t.wallet.id = :walletId AND t.createdAt >= :since",
+            countQuery = "SELECT COUNT(t) FROM Transaction t WHERE t.wallet.id = :walletId AND t.createdAt >= :since")
+    Page<TransactionView> findViewsByWalletId(@Param("walletId") UUID walletId,
+                                              @Param("since") LocalDateTime since,
+                                              Pageable pageable);
+
+    // Keyset pages follow idx_wallet_created_at_id. The redundant createdAt bound gives the scan
+    // its start key; the OR only breaks ties between rows stamped in the same microsecond.
+    @Query(VIEW + "WHERE t.wallet.id = :walletId AND t.createdAt >= :since ORDER BY t.createdAt DESC, t.id")
+    Slice<TransactionView> findFirstHistoryPage(@Param("walletId") UUID walletId,
+                                                @Param("since") LocalDateTime since,
+                                                Pageable pageable);
+
+    @Query(VIEW + "WHERE t.wallet.id = :walletId AND t.createdAt >= :since AND t.createdAt <= :createdAt " +
+            "AND (t.createdAt < :createdAt OR t.id > :id) ORDER BY t.createdAt DESC, t.id")
+    Slice<TransactionView> findHistoryPageAfter(@Param("walletId") UUID walletId,
+                                                @Param("since") LocalDateTime since,
+                                                @Param("createdAt") LocalDateTime createdAt,
+                                                @Param("id") UUID id,
+                                                Pageable pageable);
+
+    // Rows are pulled through a server-side cursor in fetch-size chunks; the caller must consume
+    // the stream inside a transaction and detach what it has written. Oldest first is a backward
+    // scan of idx_wallet_created_at_id, hence the descending id tie-break.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT t FROM Transaction t WHERE t.wallet.id = :walletId AND t.createdAt >= :from AND t.createdAt < :to " +
+            "AND t.type IN :types ORDER BY t.createdAt, t.id DESC")
+    Stream<Transaction> streamForExport(@Param("walletId") UUID walletId,
+                                        @Param("from") LocalDateTime from,
+                                        @Param("to") LocalDateTime to,
+                                        @Param("types") Collection<TransactionType> types);
 
     @Lock(LockModeType.PESSIMISTIC_WRITE)
-    @Query("SELECT t FROM Transaction t WHERE t.reference = :reference")
-    Optional<Transaction> findByReferenceForUpdate(@Param("reference") String reference);
+    @Query("SELECT t FROM Transaction t WHERE t.reference = :reference AND t.createdAt >= :from AND t.createdAt < :to")
+    Optional<Transaction> findByReferenceForUpdate(@Param("reference") String reference,
+                                                   @Param("from") LocalDateTime from,
+                                                   @Param("to") LocalDateTime to);
 }
\ No newline at end of file
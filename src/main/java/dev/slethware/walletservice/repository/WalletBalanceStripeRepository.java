@@ -0,0 +1,26 @@
+package dev.slethware.walletservice.repository;
+
+import dev.slethware.walletservice.models.entity.WalletBalanceStripe;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface WalletBalanceStripeRepository extends JpaRepository<WalletBalanceStripe, UUID> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM WalletBalanceStripe s WHERE s.wallet.id = :walletId ORDER BY s.stripeIndex")
+    List<WalletBalanceStripe> findByWalletIdForUpdate(@Param("walletId") UUID walletId);
+
+    @Modifying
+    @Query("UPDATE WalletBalanceStripe s SET s.balance = s.balance + :amount " +
+            "WHERE s.wallet.id = :walletId AND s.stripeIndex = :stripeIndex")
+    int credit(@Param("walletId") UUID walletId,
+               @Param("stripeIndex") int stripeIndex,
+               @Param("amount") long amount);
+}
@@ -1,12 +1,16 @@
 package dev.slethware.walletservice.repository;
 
 import dev.slethware.walletservice.models.entity.Wallet;
+import dev.slethware.walletservice.models.projection.WalletSummary;
 import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -15,6 +19,46 @@ public interface WalletRepository extends JpaRepository<Wallet, UUID> {
     Optional<Wallet> findByWalletNumber(String walletNumber);
     boolean existsByWalletNumber(String walletNumber);
 
+    @Query("SELECT new dev.slethware.walletservice.models.projection.WalletSummary(w.id, w.walletNumber, w.createdAt) " +
+            "FROM Wallet w WHERE w.user.id = :userId")
+    Optional<WalletSummary> findSummaryByUserId(@Param("userId") UUID userId);
+
+    @Query("SELECT new dev.slethware.walletservice.models.projection.WalletSummary(w.id, w.walletNumber, w.createdAt) " +
+            "FROM Wallet w WHERE w.walletNumber = :walletNumber")
+    Optional<WalletSummary> findSummaryByWalletNumber(@Param("walletNumber") String walletNumber);
+
+    @Query("SELECT new dev.slethware.walletservice.models.projection.WalletSummary(w.id, w.walletNumber, w.createdAt) " +
+            "FROM Wallet w WHERE w.walletNumber IN :walletNumbers")
+    List<WalletSummary> findSummariesByWalletNumberIn(@Param("walletNumbers") Collection<String> walletNumbers);
+
+    // Rows are locked in the order they are returned, which must match BalanceEngine.LOCK_ORDER.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT w FROM Wallet w WHERE w.id IN :ids ORDER BY w.id")
+    List<Wallet> findAllByIdInForUpdate(@Param("ids") Collection<UUID> ids);
+
+    @Query("SELECT w.stripeCount FROM Wallet w WHERE w.id = :id")
+    Optional<Integer> findStripeCountById(@Param("id") UUID id);
+
+    // The wallet row and its stripes are read by one statement, so a sweep that commits in between
+    // is neither missed nor counted twice.
+    @Query("SELECT w.balance + COALESCE((SELECT SUM(s.balance) FROM WalletBalanceStripe s WHERE s.wallet.id = w.id), 0) " +
+            "FROM Wallet w WHERE w.id = :id")
+    Optional<Long> findBalanceWithStripesById(@Param("id") UUID id);
+
+    // Locks the row without loading the wallet into the persistence context
+    @Query(value = "SELECT id FROM wallets WHERE id = :id FOR NO KEY UPDATE", nativeQuery = true)
+    Optional<UUID> lockById(@Param("id") UUID id);
+
+    @Modifying
+    @Query("UPDATE Wallet w SET w.balance = w.balance + :amount, w.version = w.version + 1, w.updatedAt = LOCAL DATETIME " +
+            "WHERE w.id = :id")
+    int credit(@Param("id") UUID id, @Param("amount") long amount);
+
+    @Modifying
+    @Query("UPDATE Wallet w SET w.balance = w.balance - :amount, w.version = w.version + 1, w.updatedAt = LOCAL DATETIME " +
+            "WHERE w.id = :id AND w.balance >= :amount")
+    int debitIfSufficient(@Param("id") UUID id, @Param("amount") long amount);
+
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("SELECT w FROM Wallet w WHERE w.walletNumber = :walletNumber")
     Optional<Wallet> findByWalletNumberForUpdate(@Param("walletNumber") String walletNumber);
@@ -7,18 +7,25 @@ import org.springframework.security.core.authority.SimpleGrantedAuthority;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 public class ApiKeyAuthentication implements Authentication {
+    private final UUID apiKeyId;
     private final User user;
     private final List<String> permissions;
     private boolean authenticated = true;
 
-    public ApiKeyAuthentication(User user, List<String> permissions) {
+    public ApiKeyAuthentication(UUID apiKeyId, User user, List<String> permissions) {
+        this.apiKeyId = apiKeyId;
         this.user = user;
         this.permissions = permissions;
     }
 
+    public UUID getApiKeyId() {
+        return apiKeyId;
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return permissions.stream()
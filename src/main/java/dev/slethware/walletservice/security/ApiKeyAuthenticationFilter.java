@@ -31,6 +31,7 @@ public class ApiKeyAuthenticationFilter extends OncePerRequestFilter {
 
                 if (apiKey != null && apiKey.isActive()) {
                     ApiKeyAuthentication authentication = new ApiKeyAuthentication(
+                            apiKey.getId(),
                             apiKey.getUser(),
                             apiKey.getPermissions()
                     );
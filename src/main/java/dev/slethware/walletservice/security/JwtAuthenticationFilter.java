@@ -1,28 +1,36 @@
 package dev.slethware.walletservice.security;
 
+import dev.slethware.walletservice.service.auth.CustomUserDetailsService;
+import dev.slethware.walletservice.service.token.TokenRevocationService;
 import dev.slethware.walletservice.service.token.TokenService;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.UUID;
 
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
-    private final UserDetailsService userDetailsService;
+    private final CustomUserDetailsService userDetailsService;
     private final TokenService tokenService;
+    private final TokenRevocationService tokenRevocationService;
+
+    @Value("${jwt.stateless-principal:true}")
+    private boolean statelessPrincipal;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
@@ -30,23 +38,17 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String authorizationHeader = request.getHeader("Authorization");
 
-            if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
+            if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")
+                    && SecurityContextHolder.getContext().getAuthentication() == null) {
                 String token = authorizationHeader.substring(7);
-                String email = tokenService.extractEmail(token);
-
-                if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                    UserDetails userDetails = userDetailsService.loadUserByUsername(email);
-
-                    if (tokenService.validateAccessToken(token, email)) {
-                        UsernamePasswordAuthenticationToken authentication =
-                                new UsernamePasswordAuthenticationToken(
-                                        userDetails,
-                                        null,
-                                        userDetails.getAuthorities()
-                                );
-                        authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                        SecurityContextHolder.getContext().setAuthentication(authentication);
-                    }
+                Claims claims = tokenService.parseAccessToken(token);
+
+                if (claims != null && !tokenRevocationService.isRevoked(claims)) {
+                    UsernamePasswordAuthenticationToken authentication = statelessPrincipal
+                            ? statelessAuthentication(claims)
+                            : userDetailsAuthentication(claims);
+                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
                 }
             }
         } catch (Exception e) {
@@ -55,4 +57,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
-}
\ No newline at end of file
+
+    private UsernamePasswordAuthenticationToken statelessAuthentication(Claims claims) {
+        JwtPrincipal principal = JwtPrincipal.fromClaims(claims);
+        return new UsernamePasswordAuthenticationToken(principal, null, principal.authorities());
+    }
+
+    private UsernamePasswordAuthenticationToken userDetailsAuthentication(Claims claims) {
+        UUID userId = UUID.fromString(claims.get("userId", String.class));
+        UserDetails userDetails = userDetailsService.loadUserById(userId);
+        return new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+    }
+}
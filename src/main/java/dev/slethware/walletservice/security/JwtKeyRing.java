@@ -0,0 +1,146 @@
+package dev.slethware.walletservice.security;
+
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.security.EcPrivateJwk;
+import io.jsonwebtoken.security.EcPublicJwk;
+import io.jsonwebtoken.security.Jwk;
+import io.jsonwebtoken.security.JwkSet;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.OctetPrivateJwk;
+import io.jsonwebtoken.security.OctetPublicJwk;
+import io.jsonwebtoken.security.PrivateJwk;
+import io.jsonwebtoken.security.PublicJwk;
+import io.jsonwebtoken.security.SignatureException;
+
+import javax.crypto.SecretKey;
+import java.security.Key;
+import java.security.PrivateKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Signing and verification keys for access tokens. Without configured signing keys tokens are signed
+// with the shared HS256 secret; with a JWK set they are signed with the active private key (ES256 or
+// EdDSA) and every key in the set stays valid for verification, which allows overlapping rotation.
+// Once a JWK set is in use, HS256 tokens (the ones without a kid) are only accepted until
+// jwt.legacy-tokens-until, which may be at most one token lifetime away, so the shared secret
+// stops being able to mint tokens.
+public class JwtKeyRing extends LocatorAdapter<Key> {
+
+    private final SecretKey secretKey;
+    private final PrivateKey signingKey;
+    private final String signingKeyId;
+    private final Map<String, Key> verificationKeys;
+    private final List<PublicJwk<?>> publicJwks;
+    private final Instant legacyTokensUntil;
+
+    private JwtKeyRing(SecretKey secretKey, PrivateKey signingKey, String signingKeyId,
+                       Map<String, Key> verificationKeys, List<PublicJwk<?>> publicJwks, Instant legacyTokensUntil) {
+        this.secretKey = secretKey;
+        this.signingKey = signingKey;
+        this.signingKeyId = signingKeyId;
+        this.verificationKeys = verificationKeys;
+        this.publicJwks = publicJwks;
+        this.legacyTokensUntil = legacyTokensUntil;
+    }
+
+    public static JwtKeyRing symmetric(SecretKey secretKey) {
+        return new JwtKeyRing(secretKey, null, null, Map.of(), List.of(), Instant.MAX);
+    }
+
+    // legacyTokensUntil may be null, in which case tokens without a kid are rejected as soon as a JWK set is configured.
+    public static JwtKeyRing fromJwkSet(SecretKey secretKey, String jwkSetJson, String activeKeyId,
+                                        Instant legacyTokensUntil, Duration tokenLifetime) {
+        if (jwkSetJson == null || jwkSetJson.isBlank()) {
+            return symmetric(secretKey);
+        }
+        if (legacyTokensUntil != null && legacyTokensUntil.isAfter(Instant.now().plus(tokenLifetime))) {
+            throw new IllegalStateException("jwt.legacy-tokens-until must be no more than one token lifetime (jwt.expiration) away");
+        }
+
+        JwkSet jwkSet = Jwks.setParser().build().parse(jwkSetJson);
+
+        Map<String, PrivateKey> signingKeys = new LinkedHashMap<>();
+        Map<String, Key> verificationKeys = new LinkedHashMap<>();
+        List<PublicJwk<?>> publicJwks = new ArrayList<>();
+
+        for (Jwk<?> jwk : jwkSet) {
+            String keyId = jwk.getId();
+            if (keyId == null || keyId.isBlank()) {
+                throw new IllegalStateException("Every JWT signing key must have a kid");
+            }
+
+            // Private and public-only keys alike, so an RSA key cannot slip in as verification-only
+            if (!(jwk instanceof EcPrivateJwk || jwk instanceof EcPublicJwk
+                    || jwk instanceof OctetPrivateJwk<?, ?> || jwk instanceof OctetPublicJwk<?>)) {
+                throw new IllegalStateException("JWT signing key " + keyId + " must be an EC or OKP key");
+            }
+
+            PublicJwk<?> publicJwk;
+            if (jwk instanceof PrivateJwk<?, ?, ?> privateJwk) {
+                signingKeys.put(keyId, privateJwk.toKey());
+                publicJwk = privateJwk.toPublicJwk();
+            } else {
+                publicJwk = (PublicJwk<?>) jwk;
+            }
+
+            verificationKeys.put(keyId, publicJwk.toKey());
+            publicJwks.add(publicJwk);
+        }
+
+        String signingKeyId = activeKeyId != null && !activeKeyId.isBlank()
+                ? activeKeyId
+                : signingKeys.size() == 1 ? signingKeys.keySet().iterator().next() : null;
+
+        if (signingKeyId == null || !signingKeys.containsKey(signingKeyId)) {
+            throw new IllegalStateException("jwt.active-key-id must name one private key in jwt.signing-keys");
+        }
+
+        return new JwtKeyRing(secretKey, signingKeys.get(signingKeyId), signingKeyId,
+                Map.copyOf(verificationKeys), List.copyOf(publicJwks),
+                legacyTokensUntil == null ? Instant.MIN : legacyTokensUntil);
+    }
+
+    public boolean isAsymmetric() {
+        return signingKey != null;
+    }
+
+    public SecretKey getSecretKey() {
+        return secretKey;
+    }
+
+    public PrivateKey getSigningKey() {
+        return signingKey;
+    }
+
+    public String getSigningKeyId() {
+        return signingKeyId;
+    }
+
+    public List<PublicJwk<?>> getPublicJwks() {
+        return publicJwks;
+    }
+
+    @Override
+    protected Key locate(JwsHeader header) {
+        String keyId = header.getKeyId();
+
+        // Tokens without a kid were signed with the shared secret, e.g. before asymmetric signing was enabled.
+        if (keyId == null) {
+            if (!Instant.now().isBefore(legacyTokensUntil)) {
+                throw new SignatureException("Tokens without a kid are no longer accepted");
+            }
+            return secretKey;
+        }
+
+        Key key = verificationKeys.get(keyId);
+        if (key == null) {
+            throw new SignatureException("Unknown signing key: " + keyId);
+        }
+        return key;
+    }
+}
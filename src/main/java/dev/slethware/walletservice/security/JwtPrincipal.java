@@ -0,0 +1,39 @@
+package dev.slethware.walletservice.security;
+
+import io.jsonwebtoken.Claims;
+import org.springframework.security.core.AuthenticatedPrincipal;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+// Lightweight principal built from access token claims, so bearer requests do not need a users lookup.
+public record JwtPrincipal(
+        UUID userId,
+        String email,
+        List<GrantedAuthority> authorities
+) implements AuthenticatedPrincipal {
+
+    public static JwtPrincipal fromClaims(Claims claims) {
+        String scope = claims.get("scope", String.class);
+
+        List<GrantedAuthority> authorities = scope == null || scope.isBlank()
+                ? List.of()
+                : Arrays.stream(scope.split(" "))
+                        .<GrantedAuthority>map(SimpleGrantedAuthority::new)
+                        .toList();
+
+        return new JwtPrincipal(
+                UUID.fromString(claims.get("userId", String.class)),
+                claims.getSubject(),
+                authorities
+        );
+    }
+
+    @Override
+    public String getName() {
+        return email;
+    }
+}
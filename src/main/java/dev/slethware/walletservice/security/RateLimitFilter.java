@@ -0,0 +1,150 @@
+package dev.slethware.walletservice.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.slethware.walletservice.models.dtos.response.ErrorResponse;
+import dev.slethware.walletservice.models.entity.User;
+import dev.slethware.walletservice.utility.TokenBucket;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Runs after authentication so buckets can be keyed by API key or user, and before any controller work.
+@Slf4j
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    // A batch carries up to wallet.batch.max-transfers transfers for one token, so it has its own
+    // class with a far slower refill rather than sharing the per-transfer bucket
+    enum RateLimitClass {
+        READ, DEPOSIT, TRANSFER, BATCH_TRANSFER, WITHDRAW;
+
+        String key() {
+            return name().toLowerCase().replace('_', '-');
+        }
+    }
+
+    private record Limit(long capacity, double refillPerSecond) {}
+
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final Map<RateLimitClass, Limit> limits = new EnumMap<>(RateLimitClass.class);
+    private final Cache<String, TokenBucket> buckets;
+
+    public RateLimitFilter(ObjectMapper objectMapper, MeterRegistry meterRegistry, Environment environment) {
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.enabled = environment.getProperty("rate-limit.enabled", Boolean.class, true);
+
+        for (RateLimitClass rateLimitClass : RateLimitClass.values()) {
+            String prefix = "rate-limit." + rateLimitClass.key();
+            limits.put(rateLimitClass, new Limit(
+                    environment.getProperty(prefix + ".capacity", Long.class, 60L),
+                    environment.getProperty(prefix + ".refill-per-second", Double.class, 1.0)
+            ));
+        }
+
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(environment.getProperty("rate-limit.max-buckets", Long.class, 100_000L))
+                .expireAfterAccess(Duration.ofMinutes(10))
+                .build();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String subject = enabled ? resolveSubject() : null;
+
+        if (subject != null) {
+            RateLimitClass rateLimitClass = classify(request);
+            Limit limit = limits.get(rateLimitClass);
+            TokenBucket bucket = buckets.get(subject + ":" + rateLimitClass,
+                    key -> new TokenBucket(limit.capacity(), limit.refillPerSecond()));
+
+            long waitNanos = bucket.tryConsume();
+            if (waitNanos > 0) {
+                meterRegistry.counter("rate_limit.rejected", "class", rateLimitClass.key()).increment();
+                reject(response, waitNanos);
+                return;
+            }
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private String resolveSubject() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return null;
+        }
+
+        if (authentication instanceof ApiKeyAuthentication apiKeyAuthentication) {
+            return "key:" + apiKeyAuthentication.getApiKeyId();
+        }
+
+        Object principal = authentication.getPrincipal();
+        if (principal instanceof JwtPrincipal jwtPrincipal) {
+            return "user:" + jwtPrincipal.userId();
+        }
+        if (principal instanceof User user) {
+            return "user:" + user.getId();
+        }
+
+        return null;
+    }
+
+    private RateLimitClass classify(HttpServletRequest request) {
+        if (!"POST".equals(request.getMethod())) {
+            return RateLimitClass.READ;
+        }
+
+        String path = request.getRequestURI();
+        if (path.startsWith("/api/v1/wallet/transfers/batch")) {
+            return RateLimitClass.BATCH_TRANSFER;
+        }
+        if (path.startsWith("/api/v1/wallet/transfer")) {
+            return RateLimitClass.TRANSFER;
+        }
+        if (path.startsWith("/api/v1/wallet/deposit")) {
+            return RateLimitClass.DEPOSIT;
+        }
+        if (path.startsWith("/api/v1/wallet/withdraw")) {
+            return RateLimitClass.WITHDRAW;
+        }
+        return RateLimitClass.READ;
+    }
+
+    private void reject(HttpServletResponse response, long waitNanos) throws IOException {
+        long retryAfterSeconds = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+
+        ErrorResponse errorResponse = ErrorResponse.builder()
+                .message("Rate limit exceeded, retry after " + retryAfterSeconds + " seconds")
+                .error("Too Many Requests")
+                .statusCode(HttpStatus.TOO_MANY_REQUESTS.value())
+                .build();
+
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), errorResponse);
+    }
+}
@@ -0,0 +1,81 @@
+package dev.slethware.walletservice.service.apikey;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import dev.slethware.walletservice.models.entity.ApiKey;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+// Verified API keys keyed by the keyed digest of the presented key, which is also the stored key_hash.
+@Component
+public class ApiKeyCache {
+
+    private final Cache<String, ApiKey> cache;
+
+    public ApiKeyCache(MeterRegistry meterRegistry,
+                       @Value("${api-key.cache.max-size:10000}") long maxSize,
+                       @Value("${api-key.cache.ttl:60s}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new KeyExpiry(ttl))
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "apiKeys");
+    }
+
+    public ApiKey get(String keyHash) {
+        ApiKey apiKey = cache.getIfPresent(keyHash);
+        if (apiKey != null && !apiKey.isActive()) {
+            cache.invalidate(keyHash);
+            return null;
+        }
+        return apiKey;
+    }
+
+    public void put(ApiKey apiKey) {
+        cache.put(apiKey.getKeyHash(), apiKey);
+    }
+
+    // Evicting only before commit would let a concurrent request re-cache the row it is about to replace.
+    public void evict(ApiKey apiKey) {
+        String keyHash = apiKey.getKeyHash();
+        cache.invalidate(keyHash);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.invalidate(keyHash);
+                }
+            });
+        }
+    }
+
+    private record KeyExpiry(Duration ttl) implements Expiry<String, ApiKey> {
+
+        @Override
+        public long expireAfterCreate(String keyHash, ApiKey apiKey, long currentTime) {
+            long untilExpiry = Duration.between(LocalDateTime.now(), apiKey.getExpiresAt()).toNanos();
+            return Math.max(0, Math.min(ttl.toNanos(), untilExpiry));
+        }
+
+        @Override
+        public long expireAfterUpdate(String keyHash, ApiKey apiKey, long currentTime, long currentDuration) {
+            return expireAfterCreate(keyHash, apiKey, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String keyHash, ApiKey apiKey, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
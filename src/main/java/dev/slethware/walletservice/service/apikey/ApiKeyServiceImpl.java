@@ -1,6 +1,7 @@
 package dev.slethware.walletservice.service.apikey;
 
 import dev.slethware.walletservice.exception.BadRequestException;
+import dev.slethware.walletservice.exception.InternalServerException;
 import dev.slethware.walletservice.exception.ResourceNotFoundException;
 import dev.slethware.walletservice.exception.UnauthorizedException;
 import dev.slethware.walletservice.models.dtos.request.CreateApiKeyRequest;
@@ -9,16 +10,23 @@ import dev.slethware.walletservice.models.dtos.response.ApiKeyListResponse;
 import dev.slethware.walletservice.models.dtos.response.ApiKeyResponse;
 import dev.slethware.walletservice.models.dtos.response.ApiResponse;
 import dev.slethware.walletservice.models.entity.ApiKey;
-import dev.slethware.walletservice.models.entity.User;
 import dev.slethware.walletservice.repository.ApiKeyRepository;
+import dev.slethware.walletservice.repository.UserRepository;
 import dev.slethware.walletservice.service.user.UserService;
 import dev.slethware.walletservice.utility.ApiKeyGenerator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
@@ -31,15 +39,25 @@ import java.util.stream.Collectors;
 public class ApiKeyServiceImpl implements ApiKeyService {
 
     private final ApiKeyRepository apiKeyRepository;
+    private final UserRepository userRepository;
     private final BCryptPasswordEncoder passwordEncoder;
+    private final ApiKeyCache apiKeyCache;
+    private final ApiKeyUsageTracker apiKeyUsageTracker;
 
     private static final List<String> VALID_PERMISSIONS = Arrays.asList("deposit", "transfer", "read");
     private static final int MAX_ACTIVE_KEYS = 5;
 
+    @Value("${api-key.pepper}")
+    private String apiKeyPepper;
+
+    // Each miss on an unprefixed key BCrypt-checks every legacy key, so this is only for migration windows
+    @Value("${api-key.legacy-bcrypt-fallback:false}")
+    private boolean legacyBcryptFallback;
+
     @Override
     @Transactional
     public ApiResponse<ApiKeyResponse> createApiKey(CreateApiKeyRequest request) {
-        User currentUser = UserService.getLoggedInUser();
+        UUID currentUserId = UserService.getCurrentUserId();
 
         request.permissions().forEach(permission -> {
             if (!VALID_PERMISSIONS.contains(permission)) {
@@ -48,20 +66,22 @@ public class ApiKeyServiceImpl implements ApiKeyService {
         });
 
         long activeKeyCount = apiKeyRepository.countByUserIdAndRevokedFalseAndExpiresAtAfter(
-                currentUser.getId(), LocalDateTime.now());
+                currentUserId, LocalDateTime.now());
 
         if (activeKeyCount >= MAX_ACTIVE_KEYS) {
             throw new BadRequestException("Maximum of 5 active API keys allowed per user");
         }
 
-        String rawApiKey = ApiKeyGenerator.generate();
-        String keyHash = passwordEncoder.encode(rawApiKey);
+        String keyPrefix = ApiKeyGenerator.generatePrefix();
+        String rawApiKey = ApiKeyGenerator.generate(keyPrefix);
+        String keyHash = hashApiKey(rawApiKey);
 
         LocalDateTime expiresAt = calculateExpiry(request.expiry());
 
         ApiKey apiKey = ApiKey.builder()
-                .user(currentUser)
+                .user(userRepository.getReferenceById(currentUserId))
                 .name(request.name())
+                .keyPrefix(keyPrefix)
                 .keyHash(keyHash)
                 .permissions(request.permissions())
                 .expiresAt(expiresAt)
@@ -70,7 +90,7 @@ public class ApiKeyServiceImpl implements ApiKeyService {
 
         apiKeyRepository.save(apiKey);
 
-        log.info("Created API key for user: {}, expires at: {}", currentUser.getEmail(), expiresAt);
+        log.info("Created API key for user: {}, expires at: {}", UserService.getCurrentUserEmail(), expiresAt);
 
         ApiKeyResponse apiKeyResponse = ApiKeyResponse.builder()
                 .apiKey(rawApiKey)
@@ -88,7 +108,7 @@ public class ApiKeyServiceImpl implements ApiKeyService {
     @Override
     @Transactional
     public ApiResponse<ApiKeyResponse> rolloverApiKey(RolloverApiKeyRequest request) {
-        User currentUser = UserService.getLoggedInUser();
+        UUID currentUserId = UserService.getCurrentUserId();
 
         UUID expiredKeyId;
         try {
@@ -100,7 +120,7 @@ public class ApiKeyServiceImpl implements ApiKeyService {
         ApiKey expiredKey = apiKeyRepository.findById(expiredKeyId)
                 .orElseThrow(() -> new ResourceNotFoundException("API key not found"));
 
-        if (!expiredKey.getUser().getId().equals(currentUser.getId())) {
+        if (!expiredKey.getUser().getId().equals(currentUserId)) {
             throw new UnauthorizedException("You do not have permission to rollover this key");
         }
 
@@ -113,20 +133,22 @@ public class ApiKeyServiceImpl implements ApiKeyService {
         }
 
         long activeKeyCount = apiKeyRepository.countByUserIdAndRevokedFalseAndExpiresAtAfter(
-                currentUser.getId(), LocalDateTime.now());
+                currentUserId, LocalDateTime.now());
 
         if (activeKeyCount >= MAX_ACTIVE_KEYS) {
             throw new BadRequestException("Maximum of 5 active API keys allowed per user");
         }
 
-        String rawApiKey = ApiKeyGenerator.generate();
-        String keyHash = passwordEncoder.encode(rawApiKey);
+        String keyPrefix = ApiKeyGenerator.generatePrefix();
+        String rawApiKey = ApiKeyGenerator.generate(keyPrefix);
+        String keyHash = hashApiKey(rawApiKey);
 
         LocalDateTime expiresAt = calculateExpiry(request.expiry());
 
         ApiKey newApiKey = ApiKey.builder()
-                .user(currentUser)
+                .user(userRepository.getReferenceById(currentUserId))
                 .name(expiredKey.getName())
+                .keyPrefix(keyPrefix)
                 .keyHash(keyHash)
                 .permissions(expiredKey.getPermissions())
                 .expiresAt(expiresAt)
@@ -134,8 +156,9 @@ public class ApiKeyServiceImpl implements ApiKeyService {
                 .build();
 
         apiKeyRepository.save(newApiKey);
+        apiKeyCache.evict(expiredKey);
 
-        log.info("Rolled over API key for user: {}, new key expires at: {}", currentUser.getEmail(), expiresAt);
+        log.info("Rolled over API key for user: {}, new key expires at: {}", UserService.getCurrentUserEmail(), expiresAt);
 
         ApiKeyResponse apiKeyResponse = ApiKeyResponse.builder()
                 .apiKey(rawApiKey)
@@ -152,19 +175,12 @@ public class ApiKeyServiceImpl implements ApiKeyService {
 
     @Override
     public ApiResponse<List<ApiKeyListResponse>> listApiKeys() {
-        User currentUser = UserService.getLoggedInUser();
+        UUID currentUserId = UserService.getCurrentUserId();
 
-        List<ApiKey> apiKeys = apiKeyRepository.findByUserIdAndRevokedFalse(currentUser.getId());
+        List<ApiKey> apiKeys = apiKeyRepository.findByUserIdAndRevokedFalse(currentUserId);
 
         List<ApiKeyListResponse> responses = apiKeys.stream()
-                .map(key -> ApiKeyListResponse.builder()
-                        .id(key.getId())
-                        .name(key.getName())
-                        .permissions(key.getPermissions())
-                        .expiresAt(key.getExpiresAt())
-                        .revoked(key.isRevoked())
-                        .createdAt(key.getCreatedAt())
-                        .build())
+                .map(this::toListResponse)
                 .collect(Collectors.toList());
 
         return ApiResponse.<List<ApiKeyListResponse>>builder()
@@ -177,23 +193,16 @@ public class ApiKeyServiceImpl implements ApiKeyService {
 
     @Override
     public ApiResponse<ApiKeyListResponse> getApiKey(UUID keyId) {
-        User currentUser = UserService.getLoggedInUser();
+        UUID currentUserId = UserService.getCurrentUserId();
 
         ApiKey apiKey = apiKeyRepository.findById(keyId)
                 .orElseThrow(() -> new ResourceNotFoundException("API key not found"));
 
-        if (!apiKey.getUser().getId().equals(currentUser.getId())) {
+        if (!apiKey.getUser().getId().equals(currentUserId)) {
             throw new UnauthorizedException("You do not have permission to view this key");
         }
 
-        ApiKeyListResponse response = ApiKeyListResponse.builder()
-                .id(apiKey.getId())
-                .name(apiKey.getName())
-                .permissions(apiKey.getPermissions())
-                .expiresAt(apiKey.getExpiresAt())
-                .revoked(apiKey.isRevoked())
-                .createdAt(apiKey.getCreatedAt())
-                .build();
+        ApiKeyListResponse response = toListResponse(apiKey);
 
         return ApiResponse.<ApiKeyListResponse>builder()
                 .status("success")
@@ -206,12 +215,12 @@ public class ApiKeyServiceImpl implements ApiKeyService {
     @Override
     @Transactional
     public ApiResponse<Void> revokeApiKey(UUID keyId) {
-        User currentUser = UserService.getLoggedInUser();
+        UUID currentUserId = UserService.getCurrentUserId();
 
         ApiKey apiKey = apiKeyRepository.findById(keyId)
                 .orElseThrow(() -> new ResourceNotFoundException("API key not found"));
 
-        if (!apiKey.getUser().getId().equals(currentUser.getId())) {
+        if (!apiKey.getUser().getId().equals(currentUserId)) {
             throw new UnauthorizedException("You do not have permission to revoke this key");
         }
 
@@ -221,8 +230,9 @@ public class ApiKeyServiceImpl implements ApiKeyService {
 
         apiKey.setRevoked(true);
         apiKeyRepository.save(apiKey);
+        apiKeyCache.evict(apiKey);
 
-        log.info("Revoked API key {} for user: {}", keyId, currentUser.getEmail());
+        log.info("Revoked API key {} for user: {}", keyId, UserService.getCurrentUserEmail());
 
         return ApiResponse.<Void>builder()
                 .status("success")
@@ -233,37 +243,98 @@ public class ApiKeyServiceImpl implements ApiKeyService {
 
     @Override
     public ApiKey validateApiKey(String apiKeyString) {
-        if (apiKeyString == null || !apiKeyString.startsWith("sk_live_")) {
+        if (apiKeyString == null || !apiKeyString.startsWith(ApiKeyGenerator.KEY_SCHEME)) {
             return null;
         }
 
-        List<ApiKey> activeKeys = apiKeyRepository.findByUserIdAndRevokedFalse(null).stream()
-                .filter(key -> !key.isExpired() && !key.isRevoked())
-                .toList();
+        String keyHash = hashApiKey(apiKeyString);
 
-        for (ApiKey apiKey : activeKeys) {
-            if (passwordEncoder.matches(apiKeyString, apiKey.getKeyHash())) {
-                if (apiKey.isActive()) {
-                    return apiKey;
-                }
-            }
+        ApiKey cachedKey = apiKeyCache.get(keyHash);
+        if (cachedKey != null) {
+            apiKeyUsageTracker.recordUse(cachedKey.getId());
+            return cachedKey;
+        }
+
+        String keyPrefix = ApiKeyGenerator.extractPrefix(apiKeyString);
+
+        ApiKey apiKey;
+        if (keyPrefix != null) {
+            apiKey = apiKeyRepository.findByKeyPrefix(keyPrefix)
+                    .filter(key -> hashesMatch(key.getKeyHash(), keyHash))
+                    .orElse(null);
+        } else {
+            apiKey = apiKeyRepository.findByKeyHash(keyHash)
+                    .orElseGet(() -> migrateBcryptHashedKey(apiKeyString, keyHash));
+        }
+
+        if (apiKey == null || !apiKey.isActive()) {
+            return null;
         }
 
-        List<ApiKey> allActiveKeys = apiKeyRepository.findAll().stream()
-                .filter(key -> !key.isExpired() && !key.isRevoked())
-                .toList();
+        apiKeyCache.put(apiKey);
+        apiKeyUsageTracker.recordUse(apiKey.getId());
+        return apiKey;
+    }
 
-        for (ApiKey apiKey : allActiveKeys) {
+    // Keys issued before prefixed keys were stored as BCrypt hashes. On first use the hash is
+    // replaced with the keyed digest so later lookups go through the key_hash index.
+    private ApiKey migrateBcryptHashedKey(String apiKeyString, String keyHash) {
+        if (!legacyBcryptFallback) {
+            return null;
+        }
+
+        for (ApiKey apiKey : apiKeyRepository.findActiveBcryptHashedKeys(LocalDateTime.now())) {
             if (passwordEncoder.matches(apiKeyString, apiKey.getKeyHash())) {
-                if (apiKey.isActive()) {
-                    return apiKey;
-                }
+                apiKey.setKeyHash(keyHash);
+                apiKeyRepository.save(apiKey);
+                log.info("Migrated API key {} to keyed digest hashing", apiKey.getId());
+                return apiKey;
             }
         }
 
         return null;
     }
 
+    // Usage counters include figures recorded since the last flush.
+    private ApiKeyListResponse toListResponse(ApiKey apiKey) {
+        return ApiKeyListResponse.builder()
+                .id(apiKey.getId())
+                .name(apiKey.getName())
+                .permissions(apiKey.getPermissions())
+                .expiresAt(apiKey.getExpiresAt())
+                .revoked(apiKey.isRevoked())
+                .createdAt(apiKey.getCreatedAt())
+                .lastUsedAt(apiKeyUsageTracker.getLastUsedAt(apiKey.getId(), apiKey.getLastUsedAt()))
+                .usageCount(apiKey.getUsageCount() + apiKeyUsageTracker.getPendingCount(apiKey.getId()))
+                .build();
+    }
+
+    private String hashApiKey(String apiKeyString) {
+        SecretKeySpec key = new SecretKeySpec(apiKeyPepper.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+        Mac mac;
+        try {
+            mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+            throw new InternalServerException("Failed to hash API key", e);
+        }
+
+        byte[] bytes = mac.doFinal(apiKeyString.getBytes(StandardCharsets.UTF_8));
+        StringBuilder result = new StringBuilder();
+        for (byte b : bytes) {
+            result.append(String.format("%02x", b));
+        }
+
+        return result.toString();
+    }
+
+    private boolean hashesMatch(String storedHash, String keyHash) {
+        return MessageDigest.isEqual(
+                storedHash.getBytes(StandardCharsets.UTF_8),
+                keyHash.getBytes(StandardCharsets.UTF_8)
+        );
+    }
+
     private LocalDateTime calculateExpiry(String expiry) {
         LocalDateTime now = LocalDateTime.now();
         return switch (expiry) {
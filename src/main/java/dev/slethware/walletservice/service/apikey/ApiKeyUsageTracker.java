@@ -0,0 +1,120 @@
+package dev.slethware.walletservice.service.apikey;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Accumulates API key usage in memory and writes it behind in one batched UPDATE per flush,
+// so authenticating a request never writes to api_keys.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ApiKeyUsageTracker {
+
+    private static final String FLUSH_SQL = "UPDATE api_keys SET usage_count = usage_count + ?, " +
+            "last_used_at = GREATEST(COALESCE(last_used_at, ?), ?) WHERE id = ?";
+
+    // Count of an entry that a flush has removed from the map
+    private static final long RETIRED = -1;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<UUID, Usage> pendingUsage = new ConcurrentHashMap<>();
+
+    public void recordUse(UUID apiKeyId) {
+        add(apiKeyId, 1, System.currentTimeMillis());
+    }
+
+    public long getPendingCount(UUID apiKeyId) {
+        Usage usage = pendingUsage.get(apiKeyId);
+        return usage != null ? Math.max(usage.count.get(), 0) : 0;
+    }
+
+    public LocalDateTime getLastUsedAt(UUID apiKeyId, LocalDateTime persistedLastUsedAt) {
+        Usage usage = pendingUsage.get(apiKeyId);
+        if (usage == null || usage.lastUsedAt == 0) {
+            return persistedLastUsedAt;
+        }
+
+        LocalDateTime pendingLastUsedAt = toLocalDateTime(usage.lastUsedAt);
+        return persistedLastUsedAt == null || pendingLastUsedAt.isAfter(persistedLastUsedAt)
+                ? pendingLastUsedAt
+                : persistedLastUsedAt;
+    }
+
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${api-key.usage.flush-interval:30000}")
+    public void flush() {
+        List<UUID> apiKeyIds = new ArrayList<>();
+        List<Object[]> batchArgs = new ArrayList<>();
+
+        pendingUsage.forEach((apiKeyId, usage) -> {
+            // Each use is either taken by this drain or left in the count for the next flush
+            long count = usage.count.getAndUpdate(current -> current == RETIRED ? RETIRED : 0);
+            if (count > 0) {
+                Timestamp lastUsedAt = Timestamp.valueOf(toLocalDateTime(usage.lastUsedAt));
+                apiKeyIds.add(apiKeyId);
+                batchArgs.add(new Object[]{count, lastUsedAt, lastUsedAt, apiKeyId});
+            }
+        });
+
+        if (!batchArgs.isEmpty()) {
+            try {
+                jdbcTemplate.batchUpdate(FLUSH_SQL, batchArgs);
+                log.debug("Flushed usage for {} API keys", batchArgs.size());
+            } catch (Exception e) {
+                log.error("Failed to flush API key usage, retrying on next flush: {}", e.getMessage());
+                for (int i = 0; i < apiKeyIds.size(); i++) {
+                    add(apiKeyIds.get(i), (Long) batchArgs.get(i)[0], ((Timestamp) batchArgs.get(i)[1]).getTime());
+                }
+                return;
+            }
+        }
+
+        // Keys with nothing left to write leave the map, so it only holds keys in recent use. An entry
+        // is retired before it is removed, and a use that finds it retired starts a new one.
+        pendingUsage.forEach((apiKeyId, usage) -> {
+            if (usage.count.compareAndSet(0, RETIRED)) {
+                pendingUsage.remove(apiKeyId, usage);
+            }
+        });
+    }
+
+    private void add(UUID apiKeyId, long count, long usedAt) {
+        while (true) {
+            Usage usage = pendingUsage.computeIfAbsent(apiKeyId, id -> new Usage());
+            // Set before the count, so a flush that drains this use also sees when it happened
+            if (usedAt > usage.lastUsedAt) {
+                usage.lastUsedAt = usedAt;
+            }
+            long current = usage.count.get();
+            if (current == RETIRED) {
+                pendingUsage.remove(apiKeyId, usage);
+            } else if (usage.count.compareAndSet(current, current + count)) {
+                return;
+            }
+        }
+    }
+
+    private LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    private static final class Usage {
+        private final AtomicLong count = new AtomicLong();
+        private volatile long lastUsedAt;
+    }
+}
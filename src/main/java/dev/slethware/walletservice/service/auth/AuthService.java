@@ -11,4 +11,6 @@ public interface AuthService {
     ApiResponse<AuthResponse> googleAuth(GoogleAuthRequest request);
     void initiateGoogleOAuth(HttpServletResponse response) throws IOException;
     ApiResponse<AuthResponse> googleCallback(String code);
+    ApiResponse<Void> logout(String authorizationHeader);
+    ApiResponse<Void> revokeAllSessions(String authorizationHeader);
 }
\ No newline at end of file
@@ -1,20 +1,20 @@
 package dev.slethware.walletservice.service.auth;
 
 import com.google.api.client.googleapis.auth.oauth2.GoogleAuthorizationCodeFlow;
-import com.google.api.client.googleapis.auth.oauth2.GoogleAuthorizationCodeTokenRequest;
 import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken;
 import com.google.api.client.googleapis.auth.oauth2.GoogleIdTokenVerifier;
 import com.google.api.client.googleapis.auth.oauth2.GoogleTokenResponse;
-import com.google.api.client.http.javanet.NetHttpTransport;
-import com.google.api.client.json.gson.GsonFactory;
 import dev.slethware.walletservice.exception.BadRequestException;
+import dev.slethware.walletservice.exception.UnauthorizedException;
 import dev.slethware.walletservice.models.dtos.request.GoogleAuthRequest;
 import dev.slethware.walletservice.models.dtos.response.ApiResponse;
 import dev.slethware.walletservice.models.dtos.response.AuthResponse;
 import dev.slethware.walletservice.models.entity.User;
 import dev.slethware.walletservice.repository.UserRepository;
+import dev.slethware.walletservice.service.token.TokenRevocationService;
 import dev.slethware.walletservice.service.token.TokenService;
 import dev.slethware.walletservice.service.wallet.WalletService;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -26,7 +26,6 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.io.IOException;
-import java.util.Collections;
 import java.util.UUID;
 
 @Slf4j
@@ -34,19 +33,13 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class AuthServiceImpl implements AuthService {
 
-    private static final NetHttpTransport TRANSPORT = new NetHttpTransport();
-    private static final GsonFactory JSON_FACTORY = new GsonFactory();
-
     private final UserRepository userRepository;
     private final TokenService tokenService;
+    private final TokenRevocationService tokenRevocationService;
     private final WalletService walletService;
     private final BCryptPasswordEncoder passwordEncoder;
-
-    @Value("${google.client-id}")
-    private String googleClientId;
-
-    @Value("${google.client-secret}")
-    private String googleClientSecret;
+    private final GoogleIdTokenVerifier googleIdTokenVerifier;
+    private final GoogleAuthorizationCodeFlow googleAuthorizationCodeFlow;
 
     @Value("${google.redirect-uri:http://localhost:8080/auth/google/callback}")
     private String redirectUri;
@@ -56,13 +49,9 @@ public class AuthServiceImpl implements AuthService {
     public ApiResponse<AuthResponse> googleAuth(GoogleAuthRequest request) {
         log.info("Attempting Google auth with ID token");
 
-        GoogleIdTokenVerifier verifier = new GoogleIdTokenVerifier.Builder(TRANSPORT, JSON_FACTORY)
-                .setAudience(Collections.singletonList(googleClientId))
-                .build();
-
         GoogleIdToken idToken;
         try {
-            idToken = verifier.verify(request.idToken());
+            idToken = googleIdTokenVerifier.verify(request.idToken());
         } catch (Exception e) {
             log.error("Google Token Verification Failed: {}", e.getMessage());
             throw new BadRequestException("Invalid Google token");
@@ -108,15 +97,7 @@ public class AuthServiceImpl implements AuthService {
     public void initiateGoogleOAuth(HttpServletResponse response) throws IOException {
         log.info("Initiating Google OAuth flow");
 
-        GoogleAuthorizationCodeFlow flow = new GoogleAuthorizationCodeFlow.Builder(
-                TRANSPORT,
-                JSON_FACTORY,
-                googleClientId,
-                googleClientSecret,
-                Collections.singleton("email profile openid")
-        ).build();
-
-        String authorizationUrl = flow.newAuthorizationUrl()
+        String authorizationUrl = googleAuthorizationCodeFlow.newAuthorizationUrl()
                 .setRedirectUri(redirectUri)
                 .build();
 
@@ -133,14 +114,9 @@ public class AuthServiceImpl implements AuthService {
         }
 
         try {
-            GoogleTokenResponse tokenResponse = new GoogleAuthorizationCodeTokenRequest(
-                    TRANSPORT,
-                    JSON_FACTORY,
-                    googleClientId,
-                    googleClientSecret,
-                    code,
-                    redirectUri
-            ).execute();
+            GoogleTokenResponse tokenResponse = googleAuthorizationCodeFlow.newTokenRequest(code)
+                    .setRedirectUri(redirectUri)
+                    .execute();
 
             GoogleIdToken idToken = tokenResponse.parseIdToken();
             GoogleIdToken.Payload payload = idToken.getPayload();
@@ -181,6 +157,51 @@ public class AuthServiceImpl implements AuthService {
         }
     }
 
+    @Override
+    public ApiResponse<Void> logout(String authorizationHeader) {
+        Claims claims = resolveActiveToken(authorizationHeader);
+
+        if (claims.getId() == null) {
+            throw new BadRequestException("Token cannot be revoked individually, revoke all sessions instead");
+        }
+
+        tokenRevocationService.revokeToken(claims);
+        log.info("Revoked token {} for user: {}", claims.getId(), claims.getSubject());
+
+        return ApiResponse.<Void>builder()
+                .status("success")
+                .statusCode(200)
+                .message("Logged out successfully")
+                .build();
+    }
+
+    @Override
+    public ApiResponse<Void> revokeAllSessions(String authorizationHeader) {
+        Claims claims = resolveActiveToken(authorizationHeader);
+
+        tokenRevocationService.revokeAllSessions(UUID.fromString(claims.get("userId", String.class)));
+        log.info("Revoked all sessions for user: {}", claims.getSubject());
+
+        return ApiResponse.<Void>builder()
+                .status("success")
+                .statusCode(200)
+                .message("All sessions revoked successfully")
+                .build();
+    }
+
+    private Claims resolveActiveToken(String authorizationHeader) {
+        if (authorizationHeader == null || !authorizationHeader.startsWith("Bearer ")) {
+            throw new UnauthorizedException("Bearer token is required");
+        }
+
+        Claims claims = tokenService.parseAccessToken(authorizationHeader.substring(7));
+        if (claims == null || tokenRevocationService.isRevoked(claims)) {
+            throw new UnauthorizedException("Invalid or expired token");
+        }
+
+        return claims;
+    }
+
     private ApiResponse<AuthResponse> generateAuthResponse(User user, String message) {
         Authentication authentication = new UsernamePasswordAuthenticationToken(
                 user.getEmail(),
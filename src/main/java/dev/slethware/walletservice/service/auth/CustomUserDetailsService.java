@@ -1,6 +1,10 @@
 package dev.slethware.walletservice.service.auth;
 
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 
+import java.util.UUID;
+
 public interface CustomUserDetailsService extends UserDetailsService {
-}
\ No newline at end of file
+    UserDetails loadUserById(UUID userId);
+}
@@ -1,20 +1,45 @@
 package dev.slethware.walletservice.service.auth;
 
+import dev.slethware.walletservice.models.entity.User;
 import dev.slethware.walletservice.repository.UserRepository;
+import dev.slethware.walletservice.service.user.UserCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.util.UUID;
+
 @Service
 @RequiredArgsConstructor
 public class CustomUserDetailsServiceImpl implements CustomUserDetailsService {
 
     private final UserRepository userRepository;
+    private final UserCache userCache;
 
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        return userRepository.findByEmail(email)
+        User cachedUser = userCache.getByEmail(email);
+        if (cachedUser != null) {
+            return cachedUser;
+        }
+
+        User user = userRepository.findByEmail(email)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+        userCache.put(user);
+        return user;
+    }
+
+    @Override
+    public UserDetails loadUserById(UUID userId) throws UsernameNotFoundException {
+        User cachedUser = userCache.getById(userId);
+        if (cachedUser != null) {
+            return cachedUser;
+        }
+
+        User user = userRepository.findById(userId)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+        userCache.put(user);
+        return user;
     }
-}
\ No newline at end of file
+}
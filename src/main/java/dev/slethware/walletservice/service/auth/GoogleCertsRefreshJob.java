@@ -0,0 +1,25 @@
+package dev.slethware.walletservice.service.auth;
+
+import com.google.api.client.googleapis.auth.oauth2.GooglePublicKeysManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Refreshing ahead of expiry keeps certificate fetches off the login path during spikes.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class GoogleCertsRefreshJob {
+
+    private final GooglePublicKeysManager googlePublicKeysManager;
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${google.certs-refresh-interval:1h}")
+    public void refreshGoogleCerts() {
+        try {
+            googlePublicKeysManager.refresh();
+        } catch (Exception e) {
+            log.warn("Failed to refresh Google signing certificates: {}", e.getMessage());
+        }
+    }
+}
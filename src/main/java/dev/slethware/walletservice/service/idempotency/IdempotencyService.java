@@ -0,0 +1,10 @@
+package dev.slethware.walletservice.service.idempotency;
+
+import dev.slethware.walletservice.models.dtos.response.ApiResponse;
+
+import java.util.function.Supplier;
+
+public interface IdempotencyService {
+    <T> ApiResponse<T> execute(String idempotencyKey, String operation, Object request,
+                               Class<T> responseType, Supplier<ApiResponse<T>> action);
+}
@@ -0,0 +1,255 @@
+package dev.slethware.walletservice.service.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.slethware.walletservice.exception.BadRequestException;
+import dev.slethware.walletservice.exception.ConflictException;
+import dev.slethware.walletservice.exception.InternalServerException;
+import dev.slethware.walletservice.models.dtos.response.ApiResponse;
+import dev.slethware.walletservice.models.entity.IdempotencyRecord;
+import dev.slethware.walletservice.models.enums.IdempotencyStatus;
+import dev.slethware.walletservice.repository.IdempotencyRecordRepository;
+import dev.slethware.walletservice.service.user.UserService;
+import dev.slethware.walletservice.service.wallet.TransactionRetryExecutor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+// A key is claimed with a PENDING row before the operation runs, so the unique (user_id, key)
+// constraint stops a second node from running it too. The row is marked COMPLETED inside the
+// operation's own transaction, so a PENDING row always means the operation has not committed and
+// one left behind by a crash can be taken over once idempotency.pending-timeout has passed.
+// Requests with the same key on this node wait on the in-flight future instead of hitting the table.
+@Slf4j
+@Service
+public class IdempotencyServiceImpl implements IdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final TransactionRetryExecutor transactionRetryExecutor;
+    private final ObjectMapper objectMapper;
+    private final Cache<String, StoredResponse> responses;
+    private final ConcurrentHashMap<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+    private final Duration retention;
+    private final Duration waitTimeout;
+    private final Duration pendingTimeout;
+
+    public IdempotencyServiceImpl(IdempotencyRecordRepository idempotencyRecordRepository,
+                                  TransactionRetryExecutor transactionRetryExecutor,
+                                  ObjectMapper objectMapper,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${idempotency.cache.max-size:10000}") long maxSize,
+                                  @Value("${idempotency.cache.ttl:10m}") Duration cacheTtl,
+                                  @Value("${idempotency.retention:24h}") Duration retention,
+                                  @Value("${idempotency.wait-timeout:30s}") Duration waitTimeout,
+                                  @Value("${idempotency.pending-timeout:5m}") Duration pendingTimeout) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.transactionRetryExecutor = transactionRetryExecutor;
+        this.objectMapper = objectMapper;
+        this.retention = retention;
+        this.waitTimeout = waitTimeout;
+        this.pendingTimeout = pendingTimeout;
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(cacheTtl)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, "idempotentResponses");
+    }
+
+    @Override
+    public <T> ApiResponse<T> execute(String idempotencyKey, String operation, Object request,
+                                      Class<T> responseType, Supplier<ApiResponse<T>> action) {
+        if (idempotencyKey == null) {
+            return action.get();
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new BadRequestException("Idempotency-Key must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+
+        UUID userId = UserService.getCurrentUserId();
+        String scopedKey = userId + ":" + idempotencyKey;
+        String requestHash = hash(operation, request);
+        JavaType type = objectMapper.getTypeFactory().constructParametricType(ApiResponse.class, responseType);
+
+        while (true) {
+            StoredResponse cached = responses.getIfPresent(scopedKey);
+            if (cached != null) {
+                return replay(cached, requestHash, type);
+            }
+
+            CompletableFuture<StoredResponse> claim = new CompletableFuture<>();
+            CompletableFuture<StoredResponse> running = inFlight.putIfAbsent(scopedKey, claim);
+            if (running != null) {
+                StoredResponse completed = await(running);
+                if (completed != null) {
+                    return replay(completed, requestHash, type);
+                }
+                // The original failed and committed nothing, so this request may run it instead
+                continue;
+            }
+
+            StoredResponse outcome = null;
+            try {
+                IdempotencyRecord record = claim(userId, idempotencyKey, operation, requestHash);
+                if (record.getStatus() == IdempotencyStatus.COMPLETED) {
+                    outcome = new StoredResponse(record.getRequestHash(), record.getResponseBody());
+                    responses.put(scopedKey, outcome);
+                    return replay(outcome, requestHash, type);
+                }
+
+                ApiResponse<T> response = run(record, operation, action);
+                outcome = new StoredResponse(record.getRequestHash(), record.getResponseBody());
+                responses.put(scopedKey, outcome);
+                return response;
+            } finally {
+                inFlight.remove(scopedKey, claim);
+                claim.complete(outcome);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval:3600000}")
+    public void purgeExpiredRecords() {
+        int purged = idempotencyRecordRepository.deleteExpired(LocalDateTime.now());
+        if (purged > 0) {
+            log.info("Purged {} expired idempotency records", purged);
+        }
+    }
+
+    // Returns a PENDING record owned by this request, or the COMPLETED record of an earlier one.
+    private IdempotencyRecord claim(UUID userId, String idempotencyKey, String operation, String requestHash) {
+        LocalDateTime now = LocalDateTime.now();
+        IdempotencyRecord record = IdempotencyRecord.builder()
+                .userId(userId)
+                .idempotencyKey(idempotencyKey)
+                .operation(operation)
+                .requestHash(requestHash)
+                .status(IdempotencyStatus.PENDING)
+                .expiresAt(now.plus(retention))
+                .claimId(UUID.randomUUID())
+                .claimedAt(now)
+                .build();
+
+        try {
+            return idempotencyRecordRepository.saveAndFlush(record);
+        } catch (DataIntegrityViolationException e) {
+            IdempotencyRecord existing = idempotencyRecordRepository.findByUserIdAndIdempotencyKey(userId, idempotencyKey)
+                    .orElseThrow(() -> new ConflictException("Idempotency-Key is being reused, please retry"));
+
+            if (!existing.getRequestHash().equals(requestHash)) {
+                throw new BadRequestException("Idempotency-Key has already been used for a different request");
+            }
+            if (existing.getStatus() == IdempotencyStatus.COMPLETED) {
+                return existing;
+            }
+
+            UUID claimId = UUID.randomUUID();
+            if (idempotencyRecordRepository.reclaim(existing.getId(), claimId, now, now.minus(pendingTimeout)) == 0) {
+                throw new ConflictException("A request with this Idempotency-Key is still being processed");
+            }
+            log.warn("Took over idempotency key {} left pending since {}", idempotencyKey, existing.getClaimedAt());
+            existing.setClaimId(claimId);
+            existing.setClaimedAt(now);
+            return existing;
+        }
+    }
+
+    // The action joins the transaction opened here, so the operation and its COMPLETED record
+    // commit together or not at all.
+    private <T> ApiResponse<T> run(IdempotencyRecord record, String operation, Supplier<ApiResponse<T>> action) {
+        try {
+            return transactionRetryExecutor.execute(operation, () -> {
+                ApiResponse<T> response = action.get();
+                complete(record, response);
+                return response;
+            });
+        } catch (RuntimeException e) {
+            // Nothing was committed, so the key is released for the client to retry
+            try {
+                idempotencyRecordRepository.release(record.getId(), record.getClaimId());
+            } catch (RuntimeException releaseFailure) {
+                log.error("Failed to release idempotency key {}: {}", record.getIdempotencyKey(), releaseFailure.getMessage());
+            }
+            throw e;
+        }
+    }
+
+    // A claim that was taken over no longer matches, which rolls this run back rather than letting
+    // both requests commit the operation.
+    private void complete(IdempotencyRecord record, ApiResponse<?> response) {
+        String body;
+        try {
+            body = objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new InternalServerException("Failed to store idempotent response", e);
+        }
+
+        if (idempotencyRecordRepository.complete(record.getId(), record.getClaimId(), body) == 0) {
+            throw new ConflictException("A request with this Idempotency-Key is still being processed");
+        }
+        record.setStatus(IdempotencyStatus.COMPLETED);
+        record.setResponseBody(body);
+    }
+
+    private <T> ApiResponse<T> replay(StoredResponse stored, String requestHash, JavaType type) {
+        if (!stored.requestHash().equals(requestHash)) {
+            throw new BadRequestException("Idempotency-Key has already been used for a different request");
+        }
+        try {
+            return objectMapper.readValue(stored.body(), type);
+        } catch (JsonProcessingException e) {
+            throw new InternalServerException("Failed to read idempotent response", e);
+        }
+    }
+
+    private StoredResponse await(CompletableFuture<StoredResponse> running) {
+        try {
+            return running.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new ConflictException("A request with this Idempotency-Key is still being processed");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConflictException("A request with this Idempotency-Key is still being processed");
+        } catch (ExecutionException e) {
+            return null;
+        }
+    }
+
+    private String hash(String operation, Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(operation.getBytes(StandardCharsets.UTF_8));
+            digest.update(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new InternalServerException("Failed to hash idempotent request", e);
+        }
+    }
+
+    private record StoredResponse(String requestHash, String body) {
+    }
+}
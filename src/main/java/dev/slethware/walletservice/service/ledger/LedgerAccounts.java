@@ -0,0 +1,23 @@
+package dev.slethware.walletservice.service.ledger;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Accounts on the other side of money entering or leaving the system. Their balances go negative
+// as deposits arrive and positive as withdrawals are paid out.
+public final class LedgerAccounts {
+
+    public static final UUID DEPOSIT_CLEARING = systemAccount("deposit-clearing");
+    public static final UUID WITHDRAWAL_CLEARING = systemAccount("withdrawal-clearing");
+
+    // Watermark of an account with no checkpoint yet, so that all of its postings count
+    public static final LocalDateTime GENESIS = LocalDateTime.of(2000, 1, 1, 0, 0);
+
+    private LedgerAccounts() {
+    }
+
+    private static UUID systemAccount(String name) {
+        return UUID.nameUUIDFromBytes(("ledger:" + name).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,70 @@
+package dev.slethware.walletservice.service.ledger;
+
+import dev.slethware.walletservice.repository.BalanceCheckpointRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+// Postings are stamped by the database with the start of their transaction but only become
+// visible when it commits. The watermark therefore never passes the start of a transaction that
+// is still open, so a posting that commits late is after the watermark rather than silently
+// skipped. Both come from the database clock, so the application nodes' clocks play no part.
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "wallet.balance-engine", havingValue = "ledger")
+public class LedgerCheckpointJob {
+
+    // Read in a statement of its own, before the fold takes its snapshot: a transaction that ends
+    // in between is then either listed here or already visible to the fold. Connections of other
+    // roles show no xact_start, so postings must only be written through the application's role.
+    private static final String WATERMARK_SQL = """
+            SELECT localtimestamp,
+                   LEAST(localtimestamp - make_interval(secs => ?),
+                         (SELECT min(xact_start)::timestamp FROM pg_stat_activity
+                          WHERE xact_start IS NOT NULL AND pid <> pg_backend_pid()))
+            """;
+
+    private final BalanceCheckpointRepository balanceCheckpointRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration lag;
+
+    public LedgerCheckpointJob(BalanceCheckpointRepository balanceCheckpointRepository,
+                               JdbcTemplate jdbcTemplate,
+                               @Value("${wallet.ledger.checkpoint-lag:5m}") Duration lag) {
+        this.balanceCheckpointRepository = balanceCheckpointRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.lag = lag;
+    }
+
+    // Runs while the context is starting, before the web server takes requests, so no debit can
+    // see a wallet whose opening balance is not seeded yet.
+    @PostConstruct
+    public void seedOpeningBalances() {
+        int seeded = balanceCheckpointRepository.seedFromWallets(LedgerAccounts.GENESIS);
+        if (seeded > 0) {
+            log.info("Seeded ledger checkpoints for {} wallets", seeded);
+        }
+    }
+
+    @Scheduled(initialDelayString = "${wallet.ledger.checkpoint-interval:60000}",
+            fixedDelayString = "${wallet.ledger.checkpoint-interval:60000}")
+    public void advanceCheckpoints() {
+        DatabaseTime time = jdbcTemplate.queryForObject(WATERMARK_SQL, (rs, rowNum) -> new DatabaseTime(
+                rs.getObject(1, LocalDateTime.class), rs.getObject(2, LocalDateTime.class)), lag.toMillis() / 1000.0);
+        if (time.watermark().isBefore(time.now().minus(lag.multipliedBy(2)))) {
+            log.warn("Ledger checkpoints are held back to {} by a long-running transaction", time.watermark());
+        }
+        int advanced = balanceCheckpointRepository.advanceTo(time.watermark());
+        log.debug("Advanced ledger checkpoints for {} accounts to {}", advanced, time.watermark());
+    }
+
+    private record DatabaseTime(LocalDateTime now, LocalDateTime watermark) {
+    }
+}
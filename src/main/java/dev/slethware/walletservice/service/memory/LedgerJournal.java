@@ -0,0 +1,155 @@
+package dev.slethware.walletservice.service.memory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+import java.util.zip.CRC32C;
+
+// Write-ahead journal of applied balance movements in a memory-mapped file of fixed-size records.
+// Records carry strictly increasing sequence numbers and a checksum, so a scan from the start
+// stops at the first torn, empty or older record. When the file is full it is rewound after the
+// owner has persisted everything journaled so far.
+public class LedgerJournal implements Closeable {
+
+    public static final int CREDIT = 1;
+    public static final int DEBIT = 2;
+    // Funds taken from the sender (if any) and held under a reference for the recipient (if any)
+    public static final int HOLD = 3;
+    // A hold paid out to the wallet in the record's "to", which is the recipient or the sender
+    public static final int SETTLE = 4;
+    public static final int RELEASE = 5;
+
+    public static final int MAX_REFERENCE_LENGTH = 64;
+
+    private static final int RECORD_SIZE = 128;
+    private static final int REFERENCE_OFFSET = 52;
+    private static final int CHECKSUM_OFFSET = 124;
+    private static final UUID NONE = new UUID(0, 0);
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final boolean sync;
+    private int position;
+    private int forcedPosition;
+
+    public interface RecordHandler {
+        void apply(long sequence, int type, UUID from, UUID to, long amount, String reference);
+    }
+
+    public LedgerJournal(Path path, int sizeInBytes, boolean sync) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        this.capacity = sizeInBytes - sizeInBytes % RECORD_SIZE;
+        this.sync = sync;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+    }
+
+    // Hands every intact record after the given sequence to the handler, leaves the write position
+    // after the last intact record and returns the highest sequence seen.
+    public long replay(long afterSequence, RecordHandler handler) {
+        long lastSequence = 0;
+        int offset = 0;
+
+        while (offset + RECORD_SIZE <= capacity) {
+            long sequence = buffer.getLong(offset);
+            if (sequence <= lastSequence || buffer.getInt(offset + CHECKSUM_OFFSET) != checksum(offset)) {
+                break;
+            }
+            if (sequence > afterSequence) {
+                handler.apply(sequence, buffer.getInt(offset + 8), uuid(offset + 12), uuid(offset + 28), buffer.getLong(offset + 44),
+                        reference(offset + REFERENCE_OFFSET));
+            }
+            lastSequence = sequence;
+            offset += RECORD_SIZE;
+        }
+
+        position = offset;
+        forcedPosition = offset;
+        return lastSequence;
+    }
+
+    public boolean hasRoom() {
+        return position + RECORD_SIZE <= capacity;
+    }
+
+    public void append(long sequence, int type, UUID from, UUID to, long amount, String reference) {
+        int offset = position;
+        buffer.putLong(offset, sequence);
+        buffer.putInt(offset + 8, type);
+        putUuid(offset + 12, from == null ? NONE : from);
+        putUuid(offset + 28, to == null ? NONE : to);
+        buffer.putLong(offset + 44, amount);
+        putReference(offset + REFERENCE_OFFSET, reference);
+        buffer.putInt(offset + CHECKSUM_OFFSET, checksum(offset));
+        position += RECORD_SIZE;
+    }
+
+    // Called once per batch before any command in it is acknowledged.
+    public void force() {
+        if (sync && position > forcedPosition) {
+            buffer.force(forcedPosition, position - forcedPosition);
+        }
+        forcedPosition = position;
+    }
+
+    public void rewind() {
+        force();
+        position = 0;
+        forcedPosition = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+    private int checksum(int offset) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(offset, CHECKSUM_OFFSET));
+        return (int) crc.getValue();
+    }
+
+    private UUID uuid(int offset) {
+        UUID uuid = new UUID(buffer.getLong(offset), buffer.getLong(offset + 8));
+        return NONE.equals(uuid) ? null : uuid;
+    }
+
+    // Stored as a length followed by the ASCII bytes; the rest of the field keeps whatever was there
+    private String reference(int offset) {
+        int length = buffer.get(offset);
+        if (length == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(offset + 1, bytes);
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+
+    private void putReference(int offset, String reference) {
+        if (reference == null) {
+            buffer.put(offset, (byte) 0);
+            return;
+        }
+        byte[] bytes = reference.getBytes(StandardCharsets.US_ASCII);
+        if (bytes.length == 0 || bytes.length > MAX_REFERENCE_LENGTH) {
+            throw new IllegalArgumentException("Journal references must be 1 to " + MAX_REFERENCE_LENGTH + " characters");
+        }
+        buffer.put(offset, (byte) bytes.length);
+        buffer.put(offset + 1, bytes);
+    }
+
+    private void putUuid(int offset, UUID uuid) {
+        buffer.putLong(offset, uuid.getMostSignificantBits());
+        buffer.putLong(offset + 8, uuid.getLeastSignificantBits());
+    }
+}
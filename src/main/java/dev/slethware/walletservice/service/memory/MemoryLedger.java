@@ -0,0 +1,352 @@
+package dev.slethware.walletservice.service.memory;
+
+import dev.slethware.walletservice.utility.MpscRingBuffer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+// Wallet balances held in a long[] indexed by a dense wallet index and mutated by exactly one
+// sequencer thread. Callers enqueue commands on a ring buffer; the sequencer applies a batch,
+// journals the applied movements, forces the journal once and only then completes the callers'
+// futures. Balances can be read from any thread. Only debits are checked against the balance,
+// and nothing moves a balance below zero. Snapshots are handed to the persister on the sequencer
+// thread only, so it sees them in sequence order.
+//
+// A hold takes funds from the sender, if there is one, and keeps them under a reference until it
+// is settled to the recipient or released back to the sender. Open holds are part of every
+// snapshot and are rebuilt with the balances on start, so none is lost across a restart.
+@Slf4j
+public class MemoryLedger {
+
+    private static final VarHandle BALANCE = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final int MAX_BATCH = 1024;
+
+    // Balances of the wallets changed since the previous snapshot and every open hold, as of the
+    // given journal sequence.
+    public record Snapshot(long sequence, UUID[] walletIds, long[] balances, Map<String, Hold> holds) {
+    }
+
+    public record Hold(UUID from, UUID to, long amount) {
+    }
+
+    private final LedgerJournal journal;
+    private final Consumer<Snapshot> persister;
+    private final MpscRingBuffer<Command> ring;
+    private final Map<UUID, Integer> indexes = new ConcurrentHashMap<>();
+
+    // Owned by the sequencer thread; balances is republished whenever it grows
+    private volatile long[] balances;
+    private UUID[] walletIds;
+    private final BitSet dirty = new BitSet();
+    private final Map<String, Hold> holds = new HashMap<>();
+    private int size;
+    private long sequence;
+
+    private final Thread sequencer;
+    private volatile boolean running;
+    private volatile Throwable failure;
+
+    public MemoryLedger(LedgerJournal journal, Map<UUID, Long> openingBalances, Map<String, Hold> openingHolds,
+                        long persistedSequence, Consumer<Snapshot> persister, int ringCapacity) {
+        this.journal = journal;
+        this.persister = persister;
+        this.ring = new MpscRingBuffer<>(ringCapacity);
+
+        int capacity = Math.max(1024, Integer.highestOneBit(Math.max(1, openingBalances.size())) << 1);
+        this.balances = new long[capacity];
+        this.walletIds = new UUID[capacity];
+        openingBalances.forEach((walletId, balance) -> BALANCE.setRelease(balances, indexOf(walletId), balance));
+        holds.putAll(openingHolds);
+
+        this.sequence = Math.max(persistedSequence, journal.replay(persistedSequence, this::move));
+        this.sequencer = new Thread(this::run, "memory-ledger-sequencer");
+    }
+
+    public void start() {
+        running = true;
+        sequencer.start();
+    }
+
+    // Drains every queued command before returning.
+    public void stop() throws InterruptedException {
+        running = false;
+        sequencer.join();
+    }
+
+    // Holds left open by the previous run. Only valid before start(), while nothing else touches them.
+    public Map<String, Hold> openHolds() {
+        return Map.copyOf(holds);
+    }
+
+    public long balance(UUID walletId) {
+        Integer index = indexes.get(walletId);
+        return index == null ? 0 : (long) BALANCE.getAcquire(balances, index.intValue());
+    }
+
+    public CompletableFuture<Boolean> credit(UUID walletId, long amount) {
+        return submit(new Command(Command.CREDIT, walletId, amount));
+    }
+
+    // Completes with false, and moves nothing, when the balance is short.
+    public CompletableFuture<Boolean> debit(UUID walletId, long amount) {
+        return submit(new Command(Command.DEBIT, walletId, amount));
+    }
+
+    // Either wallet may be null: a hold without a sender brings money in, one without a recipient
+    // takes it out. Completes with false, and holds nothing, when the sender's balance is short or
+    // the reference is already held.
+    public CompletableFuture<Boolean> hold(UUID from, UUID to, long amount, String reference) {
+        Command command = new Command(Command.HOLD, from, 0);
+        command.recipients = new UUID[]{to};
+        command.amounts = new long[]{amount};
+        command.references = new String[]{reference};
+        return submit(command);
+    }
+
+    // Holds each leg in turn; every one is checked on its own against what the sender has left.
+    public CompletableFuture<boolean[]> holdEach(UUID from, UUID[] to, long[] amounts, String[] references) {
+        Command command = new Command(Command.HOLD_EACH, from, 0);
+        command.recipients = to;
+        command.amounts = amounts;
+        command.references = references;
+        return submit(command);
+    }
+
+    // Pays a hold to its recipient. Completes with false when nothing is held under the reference.
+    public CompletableFuture<Boolean> settle(String reference) {
+        Command command = new Command(Command.SETTLE, null, 0);
+        command.references = new String[]{reference};
+        return submit(command);
+    }
+
+    // Returns a hold to its sender. Completes with false when nothing is held under the reference.
+    public CompletableFuture<Boolean> release(String reference) {
+        Command command = new Command(Command.RELEASE, null, 0);
+        command.references = new String[]{reference};
+        return submit(command);
+    }
+
+    // Completes once the snapshot has been persisted, or with the persister's failure, in which case
+    // the persister is expected to keep the balances and write them with the next one.
+    public CompletableFuture<Snapshot> snapshot() {
+        return submit(new Command(Command.SNAPSHOT, null, 0));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<T> submit(Command command) {
+        if (failure != null) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Memory ledger has stopped", failure));
+        }
+        if (!running) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Memory ledger is not running"));
+        }
+        // Checked here, since a record the journal refuses would stop the sequencer
+        if (command.references != null) {
+            for (String reference : command.references) {
+                if (reference == null || reference.isEmpty() || reference.length() > LedgerJournal.MAX_REFERENCE_LENGTH
+                        || !reference.chars().allMatch(c -> c < 128)) {
+                    return CompletableFuture.failedFuture(new IllegalArgumentException("Unsupported reference " + reference));
+                }
+            }
+        }
+        ring.put(command);
+        return (CompletableFuture<T>) command.result;
+    }
+
+    private void run() {
+        List<Command> batch = new ArrayList<>(MAX_BATCH);
+        List<Object> results = new ArrayList<>(MAX_BATCH);
+
+        try {
+            while (running || !ring.isEmpty()) {
+                if (ring.drainTo(batch, MAX_BATCH) == 0) {
+                    LockSupport.parkNanos(20_000);
+                    continue;
+                }
+
+                for (Command command : batch) {
+                    results.add(command.type == Command.SNAPSHOT ? null : apply(command));
+                }
+                journal.force();
+
+                for (int i = 0; i < batch.size(); i++) {
+                    Command command = batch.get(i);
+                    if (command.type == Command.SNAPSHOT) {
+                        persistSnapshot(command);
+                    } else {
+                        command.result.complete(results.get(i));
+                    }
+                }
+                batch.clear();
+                results.clear();
+            }
+            persister.accept(takeSnapshot());
+        } catch (Throwable e) {
+            // State may now be ahead of the journal, so nothing more is accepted until a restart
+            // rebuilds it from the database and the journal.
+            failure = e;
+            running = false;
+            log.error("Memory ledger sequencer stopped", e);
+            batch.forEach(command -> command.result.completeExceptionally(e));
+            List<Command> remaining = new ArrayList<>();
+            ring.drainTo(remaining, Integer.MAX_VALUE);
+            remaining.forEach(command -> command.result.completeExceptionally(e));
+        }
+    }
+
+    private void persistSnapshot(Command command) {
+        Snapshot snapshot = takeSnapshot();
+        try {
+            persister.accept(snapshot);
+            command.result.complete(snapshot);
+        } catch (RuntimeException e) {
+            command.result.completeExceptionally(e);
+        }
+    }
+
+    private Object apply(Command command) {
+        return switch (command.type) {
+            case Command.CREDIT -> {
+                record(LedgerJournal.CREDIT, null, command.walletId, command.amount, null);
+                move(sequence, LedgerJournal.CREDIT, null, command.walletId, command.amount, null);
+                yield true;
+            }
+            case Command.DEBIT -> {
+                if (balanceAt(indexOf(command.walletId)) < command.amount) {
+                    yield false;
+                }
+                record(LedgerJournal.DEBIT, command.walletId, null, command.amount, null);
+                move(sequence, LedgerJournal.DEBIT, command.walletId, null, command.amount, null);
+                yield true;
+            }
+            case Command.HOLD -> applyHold(command.walletId, command.recipients[0], command.amounts[0], command.references[0]);
+            case Command.HOLD_EACH -> {
+                boolean[] applied = new boolean[command.amounts.length];
+                for (int i = 0; i < applied.length; i++) {
+                    applied[i] = applyHold(command.walletId, command.recipients[i], command.amounts[i], command.references[i]);
+                }
+                yield applied;
+            }
+            case Command.SETTLE, Command.RELEASE -> {
+                String reference = command.references[0];
+                Hold hold = holds.get(reference);
+                if (hold == null) {
+                    yield false;
+                }
+                int type = command.type == Command.SETTLE ? LedgerJournal.SETTLE : LedgerJournal.RELEASE;
+                UUID payee = type == LedgerJournal.SETTLE ? hold.to() : hold.from();
+                record(type, null, payee, hold.amount(), reference);
+                move(sequence, type, null, payee, hold.amount(), reference);
+                yield true;
+            }
+            default -> throw new IllegalStateException("Unknown command type " + command.type);
+        };
+    }
+
+    private boolean applyHold(UUID from, UUID to, long amount, String reference) {
+        if (holds.containsKey(reference) || (from != null && balanceAt(indexOf(from)) < amount)) {
+            return false;
+        }
+        record(LedgerJournal.HOLD, from, to, amount, reference);
+        move(sequence, LedgerJournal.HOLD, from, to, amount, reference);
+        return true;
+    }
+
+    private void record(int type, UUID from, UUID to, long amount, String reference) {
+        if (!journal.hasRoom()) {
+            // Everything journaled so far must be in the database before its records are overwritten
+            journal.force();
+            persister.accept(takeSnapshot());
+            journal.rewind();
+        }
+        journal.append(++sequence, type, from, to, amount, reference);
+    }
+
+    // Also applies replayed records. A hold only takes from the sender; its recipient is paid by
+    // the settle record, which names the wallet it pays in "to" like a release does.
+    private void move(long journalSequence, int type, UUID from, UUID to, long amount, String reference) {
+        switch (type) {
+            case LedgerJournal.HOLD -> holds.put(reference, new Hold(from, to, amount));
+            case LedgerJournal.SETTLE, LedgerJournal.RELEASE -> holds.remove(reference);
+            default -> { }
+        }
+        if (from != null) {
+            add(indexOf(from), -amount);
+        }
+        if (to != null && type != LedgerJournal.HOLD) {
+            add(indexOf(to), amount);
+        }
+    }
+
+    private Snapshot takeSnapshot() {
+        int count = dirty.cardinality();
+        UUID[] ids = new UUID[count];
+        long[] values = new long[count];
+
+        int i = 0;
+        for (int index = dirty.nextSetBit(0); index >= 0; index = dirty.nextSetBit(index + 1)) {
+            ids[i] = walletIds[index];
+            values[i] = balanceAt(index);
+            i++;
+        }
+        dirty.clear();
+        return new Snapshot(sequence, ids, values, Map.copyOf(holds));
+    }
+
+    private long balanceAt(int index) {
+        return (long) BALANCE.getAcquire(balances, index);
+    }
+
+    private void add(int index, long delta) {
+        BALANCE.setRelease(balances, index, balanceAt(index) + delta);
+        dirty.set(index);
+    }
+
+    // The array is grown and published before the index is, so a reader that finds an index
+    // always reads it from an array that contains it.
+    private int indexOf(UUID walletId) {
+        Integer index = indexes.get(walletId);
+        if (index != null) {
+            return index;
+        }
+
+        if (size == walletIds.length) {
+            walletIds = Arrays.copyOf(walletIds, size * 2);
+            balances = Arrays.copyOf(balances, size * 2);
+        }
+        walletIds[size] = walletId;
+        indexes.put(walletId, size);
+        return size++;
+    }
+
+    // The array fields are set before the command is put on the ring, which publishes them
+    private static final class Command {
+        static final int CREDIT = 1;
+        static final int DEBIT = 2;
+        static final int HOLD = 3;
+        static final int HOLD_EACH = 4;
+        static final int SETTLE = 5;
+        static final int RELEASE = 6;
+        static final int SNAPSHOT = 7;
+
+        final int type;
+        final UUID walletId;
+        final long amount;
+        UUID[] recipients;
+        long[] amounts;
+        String[] references;
+        final CompletableFuture<Object> result = new CompletableFuture<>();
+
+        Command(int type, UUID walletId, long amount) {
+            this.type = type;
+            this.walletId = walletId;
+            this.amount = amount;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package dev.slethware.walletservice.service.memory;
+
+import dev.slethware.walletservice.models.entity.MemoryEngineState;
+import dev.slethware.walletservice.repository.MemoryEngineStateRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+// Loads the in-memory engine's opening balances and holds and writes its snapshots back, together
+// with the journal sequence they cover, in a single transaction.
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "wallet.balance-engine", havingValue = "memory")
+public class MemoryLedgerStore {
+
+    private static final String ENGINE = "wallets";
+    private static final long OWNERSHIP_LOCK_KEY = 0x6d656d6c6564L;
+
+    private final DataSourceProperties dataSourceProperties;
+    private final JdbcTemplate jdbcTemplate;
+    private final MemoryEngineStateRepository memoryEngineStateRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public MemoryLedgerStore(DataSourceProperties dataSourceProperties,
+                             JdbcTemplate jdbcTemplate,
+                             MemoryEngineStateRepository memoryEngineStateRepository,
+                             PlatformTransactionManager transactionManager) {
+        this.dataSourceProperties = dataSourceProperties;
+        this.jdbcTemplate = jdbcTemplate;
+        this.memoryEngineStateRepository = memoryEngineStateRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Takes a session-level advisory lock on a connection the caller keeps open for as long as the
+    // engine runs. Balances of two instances would diverge silently, so a second one refuses to start.
+    // The connection is opened outside the pool, which would otherwise lose one of its connections
+    // for the life of the process.
+    public Connection claimOwnership() throws SQLException {
+        Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword());
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT pg_try_advisory_lock(" + OWNERSHIP_LOCK_KEY + ")")) {
+            if (rs.next() && rs.getBoolean(1)) {
+                return connection;
+            }
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+        connection.close();
+        throw new IllegalStateException("The in-memory balance engine is already running on another instance");
+    }
+
+    public long appliedSequence() {
+        return memoryEngineStateRepository.findById(ENGINE)
+                .map(MemoryEngineState::getAppliedSequence)
+                .orElse(0L);
+    }
+
+    // Stripes only exist to spread row contention, which a single writer does not have, so any
+    // balance left on them from another engine is folded back into the wallet row first.
+    public Map<UUID, Long> loadBalances() {
+        return transactionTemplate.execute(status -> {
+            int folded = jdbcTemplate.update("""
+                    UPDATE wallets w
+                    SET balance = w.balance + s.total, version = w.version + 1, updated_at = now()
+                    FROM (SELECT wallet_id, SUM(balance) AS total FROM wallet_balance_stripes
+                          WHERE balance <> 0 GROUP BY wallet_id) s
+                    WHERE w.id = s.wallet_id
+                    """);
+            if (folded > 0) {
+                jdbcTemplate.update("UPDATE wallet_balance_stripes SET balance = 0 WHERE balance <> 0");
+                log.info("Folded balance stripes of {} wallets into the wallet rows", folded);
+            }
+
+            Map<UUID, Long> balances = new HashMap<>();
+            jdbcTemplate.query("SELECT id, balance FROM wallets",
+                    rs -> { balances.put(rs.getObject(1, UUID.class), rs.getLong(2)); });
+            return balances;
+        });
+    }
+
+    public Map<String, MemoryLedger.Hold> loadHolds() {
+        Map<String, MemoryLedger.Hold> holds = new HashMap<>();
+        jdbcTemplate.query("SELECT reference, from_wallet_id, to_wallet_id, amount FROM memory_engine_holds",
+                rs -> { holds.put(rs.getString(1), new MemoryLedger.Hold(rs.getObject(2, UUID.class), rs.getObject(3, UUID.class), rs.getLong(4))); });
+        return holds;
+    }
+
+    // References whose movement the wallet service committed. A transfer leg commits its rows as
+    // <reference>_DEBIT and _CREDIT; deposits and withdrawals use the reference itself, and a
+    // deposit only counts once it is marked SUCCESS.
+    public Set<String> committedReferences(Collection<String> references) {
+        if (references.isEmpty()) {
+            return Set.of();
+        }
+        List<Object> candidates = new ArrayList<>();
+        for (String reference : references) {
+            candidates.add(reference);
+            candidates.add(reference + "_DEBIT");
+        }
+        String placeholders = String.join(", ", Collections.nCopies(candidates.size(), "?"));
+
+        Set<String> committed = new HashSet<>();
+        jdbcTemplate.query("SELECT reference FROM transactions WHERE status = 'SUCCESS' AND reference IN (" + placeholders + ")",
+                rs -> { committed.add(rs.getString(1).replaceFirst("_DEBIT$", "")); }, candidates.toArray());
+        return committed;
+    }
+
+    public void persist(MemoryLedger.Snapshot snapshot) {
+        transactionTemplate.executeWithoutResult(status -> {
+            UUID[] walletIds = snapshot.walletIds();
+            long[] balances = snapshot.balances();
+
+            jdbcTemplate.batchUpdate("UPDATE wallets SET balance = ?, version = version + 1, updated_at = now() WHERE id = ?",
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            ps.setLong(1, balances[i]);
+                            ps.setObject(2, walletIds[i]);
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return walletIds.length;
+                        }
+                    });
+            jdbcTemplate.update("DELETE FROM memory_engine_holds");
+            jdbcTemplate.batchUpdate("INSERT INTO memory_engine_holds (reference, from_wallet_id, to_wallet_id, amount) VALUES (?, ?, ?, ?)",
+                    snapshot.holds().entrySet().stream()
+                            .map(hold -> new Object[]{hold.getKey(), hold.getValue().from(), hold.getValue().to(), hold.getValue().amount()})
+                            .toList());
+            memoryEngineStateRepository.advanceTo(ENGINE, snapshot.sequence());
+        });
+    }
+}
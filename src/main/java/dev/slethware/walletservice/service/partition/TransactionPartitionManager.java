@@ -0,0 +1,131 @@
+package dev.slethware.walletservice.service.partition;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Keeps monthly range partitions of the transactions table created ahead of the clock and,
+// when a retention is set, detaches the old ones so they can be archived and dropped outside
+// the hot table. Does nothing until the table has been converted with
+// db/partition-transactions.sql, so an unpartitioned schema keeps working unchanged.
+@Slf4j
+@Component
+public class TransactionPartitionManager {
+
+    private static final String TABLE = "transactions";
+    private static final Pattern PARTITION_NAME = Pattern.compile(TABLE + "_y(\\d{4})m(\\d{2})");
+    // Every instance runs the job; the advisory lock lets one of them do the work
+    private static final long LOCK_KEY = 0x7472616e73L;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int monthsAhead;
+    private final int retentionMonths;
+
+    public TransactionPartitionManager(JdbcTemplate jdbcTemplate,
+                                       PlatformTransactionManager transactionManager,
+                                       @Value("${wallet.partitions.months-ahead:3}") int monthsAhead,
+                                       @Value("${wallet.partitions.retention-months:0}") int retentionMonths) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${wallet.partitions.cron:0 15 3 * * *}")
+    public void maintainPartitions() {
+        if (!isPartitioned()) {
+            log.debug("Table {} is not partitioned, skipping partition maintenance", TABLE);
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Boolean locked = jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class, LOCK_KEY);
+                if (!Boolean.TRUE.equals(locked)) {
+                    log.debug("Partition maintenance is running elsewhere");
+                    return;
+                }
+                maintain(YearMonth.now());
+            });
+        } catch (RuntimeException e) {
+            // Inserts fail once the clock passes the last partition, so this must be noticed
+            log.error("Partition maintenance for {} failed", TABLE, e);
+        }
+    }
+
+    private void maintain(YearMonth current) {
+        Set<YearMonth> existing = new HashSet<>();
+        for (String name : partitionNames()) {
+            Matcher matcher = PARTITION_NAME.matcher(name);
+            if (matcher.matches()) {
+                existing.add(YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2))));
+            }
+        }
+
+        for (int i = 0; i <= monthsAhead; i++) {
+            YearMonth month = current.plusMonths(i);
+            if (!existing.contains(month)) {
+                createPartition(month);
+            }
+        }
+
+        if (retentionMonths > 0) {
+            YearMonth oldestKept = current.minusMonths(retentionMonths);
+            existing.stream()
+                    .filter(month -> month.isBefore(oldestKept))
+                    .sorted()
+                    .forEach(this::detachPartition);
+        }
+    }
+
+    private boolean isPartitioned() {
+        Boolean partitioned = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_class WHERE oid = to_regclass(?) AND relkind = 'p')",
+                Boolean.class, TABLE);
+        return Boolean.TRUE.equals(partitioned);
+    }
+
+    private List<String> partitionNames() {
+        return jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+                        "WHERE i.inhparent = to_regclass(?)",
+                String.class, TABLE);
+    }
+
+    // DDL takes no bind parameters; the name and bounds are built from a YearMonth, never from input
+    private void createPartition(YearMonth month) {
+        LocalDate from = month.atDay(1);
+        LocalDate to = month.plusMonths(1).atDay(1);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partitionName(month) + " PARTITION OF " + TABLE +
+                " FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+        log.info("Created partition {} for [{}, {})", partitionName(month), from, to);
+    }
+
+    // Runs in the maintenance transaction, so the month's claimed references go with its partition
+    private void detachPartition(YearMonth month) {
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " DETACH PARTITION " + partitionName(month));
+        int released = jdbcTemplate.update("DELETE FROM transaction_references WHERE created_at >= ? AND created_at < ?",
+                month.atDay(1).atStartOfDay(), month.plusMonths(1).atDay(1).atStartOfDay());
+        log.info("Detached partition {} and released {} references; it remains as a standalone table until archived",
+                partitionName(month), released);
+    }
+
+    private static String partitionName(YearMonth month) {
+        return String.format("%s_y%04dm%02d", TABLE, month.getYear(), month.getMonthValue());
+    }
+}
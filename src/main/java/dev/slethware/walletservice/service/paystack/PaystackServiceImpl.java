@@ -2,6 +2,7 @@ package dev.slethware.walletservice.service.paystack;
 
 import com.google.gson.Gson;
 import dev.slethware.walletservice.exception.InternalServerException;
+import dev.slethware.walletservice.utility.ReferenceGenerator;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
@@ -27,10 +28,12 @@ public class PaystackServiceImpl implements PaystackService {
 
     private final WebClient webClient;
     private final Gson gson;
+    private final ReferenceGenerator referenceGenerator;
 
-    public PaystackServiceImpl(WebClient.Builder webClientBuilder, Gson gson) {
+    public PaystackServiceImpl(WebClient.Builder webClientBuilder, Gson gson, ReferenceGenerator referenceGenerator) {
         this.webClient = webClientBuilder.build();
         this.gson = gson;
+        this.referenceGenerator = referenceGenerator;
     }
 
     @Override
@@ -87,6 +90,6 @@ public class PaystackServiceImpl implements PaystackService {
 
     @Override
     public String generateReference() {
-        return "DEP_" + System.currentTimeMillis();
+        return referenceGenerator.next("DEP");
     }
 }
\ No newline at end of file
@@ -0,0 +1,11 @@
+package dev.slethware.walletservice.service.token;
+
+import io.jsonwebtoken.Claims;
+
+import java.util.UUID;
+
+public interface TokenRevocationService {
+    void revokeToken(Claims claims);
+    void revokeAllSessions(UUID userId);
+    boolean isRevoked(Claims claims);
+}
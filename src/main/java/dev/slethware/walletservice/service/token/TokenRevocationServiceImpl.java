@@ -0,0 +1,138 @@
+package dev.slethware.walletservice.service.token;
+
+import dev.slethware.walletservice.models.entity.TokenRevocation;
+import dev.slethware.walletservice.repository.TokenRevocationRepository;
+import dev.slethware.walletservice.utility.BloomFilter;
+import io.jsonwebtoken.Claims;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Revocations are persisted in token_revocations and mirrored in memory so the per-request check
+// never touches the database. Other nodes pick up new rows on the next incremental refresh.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TokenRevocationServiceImpl implements TokenRevocationService {
+
+    // Rows can commit after a later refresh started, so each refresh re-reads a short window.
+    private static final Duration REFRESH_OVERLAP = Duration.ofSeconds(30);
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private final TokenRevocationRepository tokenRevocationRepository;
+
+    @Value("${jwt.expiration}")
+    private Long jwtExpiration;
+
+    @Value("${jwt.revocation.expected-revocations:100000}")
+    private int expectedRevocations;
+
+    private volatile BloomFilter revokedTokenFilter;
+    private volatile Set<String> revokedTokenIds;
+    private volatile Map<String, Long> sessionCutoffs;
+    private volatile LocalDateTime lastRefreshedAt;
+
+    @PostConstruct
+    public void loadRevocations() {
+        LocalDateTime loadedAt = LocalDateTime.now();
+        List<TokenRevocation> revocations = tokenRevocationRepository.findByExpiresAtAfter(loadedAt);
+
+        BloomFilter filter = new BloomFilter(Math.max(expectedRevocations, revocations.size() * 2), FALSE_POSITIVE_RATE);
+        Set<String> tokenIds = ConcurrentHashMap.newKeySet();
+        Map<String, Long> cutoffs = new ConcurrentHashMap<>();
+        revocations.forEach(revocation -> apply(revocation, filter, tokenIds, cutoffs));
+
+        revokedTokenFilter = filter;
+        revokedTokenIds = tokenIds;
+        sessionCutoffs = cutoffs;
+        lastRefreshedAt = loadedAt;
+
+        log.info("Loaded {} active token revocations", revocations.size());
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.refresh-interval:5000}")
+    public void refreshRevocations() {
+        LocalDateTime refreshedAt = LocalDateTime.now();
+        tokenRevocationRepository.findByCreatedAtAfter(lastRefreshedAt.minus(REFRESH_OVERLAP))
+                .forEach(this::apply);
+        lastRefreshedAt = refreshedAt;
+    }
+
+    // A Bloom filter cannot forget entries, so purging expired rows also rebuilds the in-memory view.
+    @Scheduled(fixedDelayString = "${jwt.revocation.purge-interval:3600000}")
+    public void purgeExpiredRevocations() {
+        int purged = tokenRevocationRepository.deleteExpired(LocalDateTime.now());
+        loadRevocations();
+        log.info("Purged {} expired token revocations", purged);
+    }
+
+    @Override
+    public void revokeToken(Claims claims) {
+        TokenRevocation revocation = TokenRevocation.builder()
+                .tokenId(claims.getId())
+                .userId(UUID.fromString(claims.get("userId", String.class)))
+                .expiresAt(toLocalDateTime(claims.getExpiration()))
+                .build();
+
+        tokenRevocationRepository.save(revocation);
+        apply(revocation);
+    }
+
+    @Override
+    public void revokeAllSessions(UUID userId) {
+        LocalDateTime now = LocalDateTime.now();
+
+        TokenRevocation revocation = TokenRevocation.builder()
+                .userId(userId)
+                .issuedBefore(now)
+                .expiresAt(now.plus(Duration.ofMillis(jwtExpiration)))
+                .build();
+
+        tokenRevocationRepository.save(revocation);
+        apply(revocation);
+    }
+
+    @Override
+    public boolean isRevoked(Claims claims) {
+        String tokenId = claims.getId();
+        if (tokenId != null && revokedTokenFilter.mightContain(tokenId) && revokedTokenIds.contains(tokenId)) {
+            return true;
+        }
+
+        // iat has second precision, so a token issued in the same second as the cutoff is treated as revoked.
+        Long cutoff = sessionCutoffs.get(claims.get("userId", String.class));
+        Date issuedAt = claims.getIssuedAt();
+        return cutoff != null && issuedAt != null && issuedAt.getTime() <= cutoff;
+    }
+
+    private void apply(TokenRevocation revocation) {
+        apply(revocation, revokedTokenFilter, revokedTokenIds, sessionCutoffs);
+    }
+
+    private void apply(TokenRevocation revocation, BloomFilter filter, Set<String> tokenIds, Map<String, Long> cutoffs) {
+        if (revocation.getTokenId() != null) {
+            tokenIds.add(revocation.getTokenId());
+            filter.put(revocation.getTokenId());
+        } else {
+            long cutoff = revocation.getIssuedBefore().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            cutoffs.merge(revocation.getUserId().toString(), cutoff, Math::max);
+        }
+    }
+
+    private LocalDateTime toLocalDateTime(Date date) {
+        return LocalDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault());
+    }
+}
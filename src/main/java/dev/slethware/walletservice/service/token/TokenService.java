@@ -1,10 +1,12 @@
 package dev.slethware.walletservice.service.token;
 
 import dev.slethware.walletservice.models.entity.User;
+import io.jsonwebtoken.Claims;
 import org.springframework.security.core.Authentication;
 
 public interface TokenService {
     String generateAccessToken(Authentication authentication, User user);
+    Claims parseAccessToken(String token);
     String extractEmail(String token);
     boolean validateAccessToken(String token, String email);
-}
\ No newline at end of file
+}
@@ -1,30 +1,62 @@
 package dev.slethware.walletservice.service.token;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import dev.slethware.walletservice.exception.InternalServerException;
 import dev.slethware.walletservice.models.entity.User;
+import dev.slethware.walletservice.security.JwtKeyRing;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Service;
 
-import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class TokenServiceImpl implements TokenService {
 
-    private final SecretKey jwtSecretKey;
+    private final JwtKeyRing jwtKeyRing;
+    private final JwtParser jwtParser;
+    private final Cache<String, Claims> parsedTokenCache;
+    private final Long jwtExpiration;
 
-    @Value("${jwt.expiration}")
-    private Long jwtExpiration;
+    public TokenServiceImpl(JwtKeyRing jwtKeyRing,
+                            MeterRegistry meterRegistry,
+                            @Value("${jwt.expiration}") Long jwtExpiration,
+                            @Value("${jwt.cache.max-size:10000}") long cacheMaxSize) {
+        this.jwtKeyRing = jwtKeyRing;
+        this.jwtExpiration = jwtExpiration;
+        this.jwtParser = Jwts.parser()
+                .keyLocator(jwtKeyRing)
+                .build();
+        // Keyed by the SHA-256 of the token, so live bearer tokens are never held in memory where a heap
+        // dump or the cache itself could hand them out. The digest is still far cheaper than a signature check.
+        this.parsedTokenCache = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new TokenExpiry())
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, parsedTokenCache, "jwtClaims");
+    }
 
     @Override
     public String generateAccessToken(Authentication authentication, User user) {
@@ -39,46 +71,86 @@ public class TokenServiceImpl implements TokenService {
         claims.put("userId", user.getId().toString());
         claims.put("scope", scope);
 
-        return Jwts.builder()
+        JwtBuilder builder = Jwts.builder()
                 .claims(claims)
+                .id(UUID.randomUUID().toString())
                 .subject(user.getEmail())
                 .issuedAt(now)
-                .expiration(expiryDate)
-                .signWith(jwtSecretKey, Jwts.SIG.HS256)
-                .compact();
+                .expiration(expiryDate);
+
+        if (jwtKeyRing.isAsymmetric()) {
+            // Algorithm follows the key type: ES256 for P-256 keys, EdDSA for Ed25519 keys.
+            builder.header().keyId(jwtKeyRing.getSigningKeyId()).and()
+                    .signWith(jwtKeyRing.getSigningKey());
+        } else {
+            builder.signWith(jwtKeyRing.getSecretKey(), Jwts.SIG.HS256);
+        }
+
+        return builder.compact();
     }
 
     @Override
-    public String extractEmail(String token) {
+    public Claims parseAccessToken(String token) {
+        String tokenHash = hash(token);
+        Claims cachedClaims = parsedTokenCache.getIfPresent(tokenHash);
+        if (cachedClaims != null) {
+            return cachedClaims;
+        }
+
         try {
-            Claims claims = Jwts.parser()
-                    .verifyWith(jwtSecretKey)
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
-            return claims.getSubject();
+            Claims claims = jwtParser.parseSignedClaims(token).getPayload();
+            parsedTokenCache.put(tokenHash, claims);
+            return claims;
         } catch (Exception e) {
-            log.error("Failed to extract email from token: {}", e.getMessage());
+            log.error("Token validation failed: {}", e.getMessage());
             return null;
         }
     }
 
+    @Override
+    public String extractEmail(String token) {
+        Claims claims = parseAccessToken(token);
+        return claims != null ? claims.getSubject() : null;
+    }
+
     @Override
     public boolean validateAccessToken(String token, String email) {
+        Claims claims = parseAccessToken(token);
+        if (claims == null) {
+            return false;
+        }
+
+        boolean isExpired = claims.getExpiration().before(new Date());
+        boolean emailMatches = claims.getSubject().equals(email);
+
+        return !isExpired && emailMatches;
+    }
+
+    private static String hash(String token) {
         try {
-            Claims claims = Jwts.parser()
-                    .verifyWith(jwtSecretKey)
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new InternalServerException("Failed to hash access token", e);
+        }
+    }
 
-            boolean isExpired = claims.getExpiration().before(new Date());
-            boolean emailMatches = claims.getSubject().equals(email);
+    private static class TokenExpiry implements Expiry<String, Claims> {
 
-            return !isExpired && emailMatches;
-        } catch (Exception e) {
-            log.error("Token validation failed: {}", e.getMessage());
-            return false;
+        @Override
+        public long expireAfterCreate(String tokenHash, Claims claims, long currentTime) {
+            long untilExpiry = claims.getExpiration().getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, untilExpiry));
+        }
+
+        @Override
+        public long expireAfterUpdate(String tokenHash, Claims claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(tokenHash, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String tokenHash, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
         }
     }
-}
\ No newline at end of file
+}
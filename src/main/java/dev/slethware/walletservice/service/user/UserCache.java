@@ -0,0 +1,79 @@
+package dev.slethware.walletservice.service.user;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.slethware.walletservice.models.entity.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.UUID;
+
+@Component
+public class UserCache {
+
+    private final Cache<String, User> usersByEmail;
+    private final Cache<UUID, User> usersById;
+
+    public UserCache(MeterRegistry meterRegistry,
+                     @Value("${user.cache.max-size:10000}") long maxSize,
+                     @Value("${user.cache.ttl:10m}") Duration ttl) {
+        this.usersByEmail = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.usersById = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, usersByEmail, "usersByEmail");
+        CaffeineCacheMetrics.monitor(meterRegistry, usersById, "usersById");
+    }
+
+    public User getByEmail(String email) {
+        return usersByEmail.getIfPresent(email);
+    }
+
+    public User getById(UUID userId) {
+        return usersById.getIfPresent(userId);
+    }
+
+    public void put(User user) {
+        usersByEmail.put(user.getEmail(), user);
+        usersById.put(user.getId(), user);
+    }
+
+    // Evicted again after completion so a concurrent read cannot re-cache the pre-commit row.
+    public void evict(User user) {
+        String email = user.getEmail();
+        UUID userId = user.getId();
+        invalidate(email, userId);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidate(email, userId);
+                }
+            });
+        }
+    }
+
+    private void invalidate(String email, UUID userId) {
+        if (userId != null) {
+            User cachedUser = usersById.getIfPresent(userId);
+            if (cachedUser != null) {
+                usersByEmail.invalidate(cachedUser.getEmail());
+            }
+            usersById.invalidate(userId);
+        }
+        usersByEmail.invalidate(email);
+    }
+}
@@ -0,0 +1,22 @@
+package dev.slethware.walletservice.service.user;
+
+import dev.slethware.walletservice.models.entity.User;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+// Attached to User in META-INF/orm.xml. Hibernate resolves entity listeners through the Spring
+// bean container, so this is the singleton bean.
+@Component
+@RequiredArgsConstructor
+public class UserCacheInvalidationListener {
+
+    private final UserCache userCache;
+
+    @PostUpdate
+    @PostRemove
+    public void onUserChanged(User user) {
+        userCache.evict(user);
+    }
+}
@@ -13,4 +13,8 @@ public interface UserService {
     static UUID getCurrentUserId() {
         return UserServiceImpl.getCurrentUserId();
     }
-}
\ No newline at end of file
+
+    static String getCurrentUserEmail() {
+        return UserServiceImpl.getCurrentUserEmail();
+    }
+}
@@ -2,6 +2,7 @@ package dev.slethware.walletservice.service.user;
 
 import dev.slethware.walletservice.exception.UnauthorizedException;
 import dev.slethware.walletservice.models.entity.User;
+import dev.slethware.walletservice.security.JwtPrincipal;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.Authentication;
@@ -15,17 +16,48 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
 
+    // Only available when the principal is a full User (API key or stateful JWT authentication).
     public static User getLoggedInUser() {
+        if (getPrincipal() instanceof User user) {
+            return user;
+        }
+
+        throw new UnauthorizedException("No authenticated user found");
+    }
+
+    public static UUID getCurrentUserId() {
+        Object principal = getPrincipal();
+
+        if (principal instanceof JwtPrincipal jwtPrincipal) {
+            return jwtPrincipal.userId();
+        }
+        if (principal instanceof User user) {
+            return user.getId();
+        }
+
+        throw new UnauthorizedException("No authenticated user found");
+    }
+
+    public static String getCurrentUserEmail() {
+        Object principal = getPrincipal();
+
+        if (principal instanceof JwtPrincipal jwtPrincipal) {
+            return jwtPrincipal.email();
+        }
+        if (principal instanceof User user) {
+            return user.getEmail();
+        }
+
+        throw new UnauthorizedException("No authenticated user found");
+    }
+
+    private static Object getPrincipal() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 
         if (authentication == null || !authentication.isAuthenticated()) {
             throw new UnauthorizedException("No authenticated user found");
         }
 
-        return (User) authentication.getPrincipal();
-    }
-
-    public static UUID getCurrentUserId() {
-        return getLoggedInUser().getId();
+        return authentication.getPrincipal();
     }
-}
\ No newline at end of file
+}
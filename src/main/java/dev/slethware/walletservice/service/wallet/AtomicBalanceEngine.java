@@ -0,0 +1,82 @@
+package dev.slethware.walletservice.service.wallet;
+
+import dev.slethware.walletservice.exception.BadRequestException;
+import dev.slethware.walletservice.exception.ResourceNotFoundException;
+import dev.slethware.walletservice.models.entity.Wallet;
+import dev.slethware.walletservice.repository.WalletRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+
+// Each movement is one conditional UPDATE, so a wallet row is only locked for the statement
+// itself and never loaded into the persistence context.
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "wallet.balance-engine", havingValue = "atomic")
+public class AtomicBalanceEngine implements BalanceEngine {
+
+    private final WalletRepository walletRepository;
+    private final BalanceStripes balanceStripes;
+    private final WalletRowBatchTransfer walletRowBatchTransfer;
+
+    @Override
+    public long balanceOf(Wallet wallet) {
+        if (wallet.getStripeCount() > 0) {
+            return balanceStripes.balanceWithStripes(wallet.getId());
+        }
+        return wallet.getBalance();
+    }
+
+    @Override
+    public void credit(UUID walletId, long amount, String reference) {
+        if (balanceStripes.credit(walletId, amount)) {
+            return;
+        }
+        if (walletRepository.credit(walletId, amount) == 0) {
+            throw new ResourceNotFoundException("Wallet not found");
+        }
+    }
+
+    @Override
+    public void debit(UUID walletId, long amount, String reference) {
+        if (walletRepository.debitIfSufficient(walletId, amount) == 1) {
+            return;
+        }
+        if (!balanceStripes.isStriped(walletId)) {
+            throw new BadRequestException("Insufficient balance");
+        }
+
+        // An UPDATE whose condition fails leaves the row unlocked, and the stripes may only be locked behind it
+        walletRepository.lockById(walletId);
+        long swept = balanceStripes.sweep(walletId);
+        if (swept > 0) {
+            walletRepository.credit(walletId, swept);
+            if (walletRepository.debitIfSufficient(walletId, amount) == 1) {
+                return;
+            }
+        }
+        throw new BadRequestException("Insufficient balance");
+    }
+
+    // The statements still lock rows, so the two wallets are handled in wallet id order for the same
+    // reason the pessimistic engine locks in that order. That covers a sweep of the sender's stripes
+    // and a striped recipient's stripe as well. A failed debit after the credit rolls back with it.
+    @Override
+    public void transfer(UUID senderWalletId, UUID recipientWalletId, long amount, String reference) {
+        if (LOCK_ORDER.compare(senderWalletId, recipientWalletId) < 0) {
+            debit(senderWalletId, amount, reference);
+            credit(recipientWalletId, amount, reference);
+        } else {
+            credit(recipientWalletId, amount, reference);
+            debit(senderWalletId, amount, reference);
+        }
+    }
+
+    @Override
+    public boolean[] transferBatch(UUID senderWalletId, List<BatchLeg> legs) {
+        return walletRowBatchTransfer.apply(senderWalletId, legs);
+    }
+}
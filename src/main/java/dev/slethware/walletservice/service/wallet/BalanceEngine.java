@@ -0,0 +1,29 @@
+package dev.slethware.walletservice.service.wallet;
+
+import dev.slethware.walletservice.models.entity.Wallet;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+// Applies balance movements inside the caller's transaction. Implementations throw
+// BadRequestException when a debit would overdraw the wallet. Credits and debits are money
+// entering and leaving the system (deposits and withdrawals); references are only recorded
+// by engines that keep their own history.
+public interface BalanceEngine {
+
+    // Order in which wallet rows are locked. UUID.compareTo compares signed halves, while Postgres
+    // orders uuids bytewise, so the string form is used to agree with ORDER BY id in lock queries.
+    Comparator<UUID> LOCK_ORDER = Comparator.comparing(UUID::toString);
+
+    long balanceOf(Wallet wallet);
+    void credit(UUID walletId, long amount, String reference);
+    void debit(UUID walletId, long amount, String reference);
+    void transfer(UUID senderWalletId, UUID recipientWalletId, long amount, String reference);
+
+    // Applies the legs in order for as long as the sender can afford them and reports which were applied.
+    boolean[] transferBatch(UUID senderWalletId, List<BatchLeg> legs);
+
+    record BatchLeg(UUID recipientWalletId, long amount, String reference) {
+    }
+}
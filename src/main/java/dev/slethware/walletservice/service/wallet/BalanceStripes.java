@@ -0,0 +1,111 @@
+package dev.slethware.walletservice.service.wallet;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.slethware.walletservice.models.entity.WalletBalanceStripe;
+import dev.slethware.walletservice.repository.WalletBalanceStripeRepository;
+import dev.slethware.walletservice.repository.WalletRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Credits to a striped wallet land on one of its stripe rows instead of the wallet row, so
+// concurrent credits only contend per stripe. Debits sweep the stripes back into the wallet row.
+// A wallet's stripe rows are only locked after its own wallet row, and wallets are worked through
+// in BalanceEngine.LOCK_ORDER, so stripe locks never cross between two wallets in opposite orders.
+@Component
+public class BalanceStripes {
+
+    private final WalletRepository walletRepository;
+    private final WalletBalanceStripeRepository stripeRepository;
+
+    // A stale count only sends a credit to the wallet row or a missing stripe, which falls back
+    // to the wallet row, so it never affects correctness.
+    private final Cache<UUID, Integer> stripeCounts;
+
+    public BalanceStripes(WalletRepository walletRepository,
+                          WalletBalanceStripeRepository stripeRepository,
+                          MeterRegistry meterRegistry,
+                          @Value("${wallet.stripes.cache.max-size:10000}") long maxSize,
+                          @Value("${wallet.stripes.cache.ttl:60s}") Duration ttl) {
+        this.walletRepository = walletRepository;
+        this.stripeRepository = stripeRepository;
+        this.stripeCounts = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, stripeCounts, "walletStripeCounts");
+    }
+
+    public boolean isStriped(UUID walletId) {
+        return stripeCount(walletId) > 0;
+    }
+
+    // Returns false when the wallet is not striped and the caller must credit the wallet row.
+    public boolean credit(UUID walletId, long amount) {
+        int count = stripeCount(walletId);
+        if (count == 0) {
+            return false;
+        }
+        int stripeIndex = ThreadLocalRandom.current().nextInt(count);
+        return stripeRepository.credit(walletId, stripeIndex, amount) == 1;
+    }
+
+    // Locks every stripe of the wallet, zeroes them and returns the amount the caller must add
+    // to the wallet row in the same transaction. The caller must already hold the wallet row lock.
+    public long sweep(UUID walletId) {
+        if (stripeCount(walletId) == 0) {
+            return 0;
+        }
+
+        long swept = 0;
+        for (WalletBalanceStripe stripe : stripeRepository.findByWalletIdForUpdate(walletId)) {
+            if (stripe.getBalance() != 0) {
+                swept += stripe.getBalance();
+                stripe.setBalance(0);
+            }
+        }
+        return swept;
+    }
+
+    public long balanceWithStripes(UUID walletId) {
+        return walletRepository.findBalanceWithStripesById(walletId).orElse(0L);
+    }
+
+    // Creates missing stripes and removes the ones beyond the new count, returning the balance
+    // held by the removed stripes for the caller to add to the wallet row.
+    public long resize(UUID walletId, int stripeCount) {
+        List<WalletBalanceStripe> stripes = stripeRepository.findByWalletIdForUpdate(walletId);
+
+        long released = 0;
+        for (WalletBalanceStripe stripe : stripes) {
+            if (stripe.getStripeIndex() >= stripeCount) {
+                released += stripe.getBalance();
+                stripeRepository.delete(stripe);
+            }
+        }
+
+        for (int index = stripes.size(); index < stripeCount; index++) {
+            stripeRepository.save(WalletBalanceStripe.builder()
+                    .wallet(walletRepository.getReferenceById(walletId))
+                    .stripeIndex(index)
+                    .balance(0)
+                    .build());
+        }
+
+        stripeCounts.invalidate(walletId);
+        return released;
+    }
+
+    private int stripeCount(UUID walletId) {
+        return stripeCounts.get(walletId, id -> walletRepository.findStripeCountById(id).orElse(0));
+    }
+}
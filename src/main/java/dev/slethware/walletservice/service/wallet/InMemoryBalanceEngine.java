@@ -0,0 +1,280 @@
+package dev.slethware.walletservice.service.wallet;
+
+import dev.slethware.walletservice.exception.BadRequestException;
+import dev.slethware.walletservice.exception.InternalServerException;
+import dev.slethware.walletservice.models.entity.Wallet;
+import dev.slethware.walletservice.service.memory.LedgerJournal;
+import dev.slethware.walletservice.service.memory.MemoryLedger;
+import dev.slethware.walletservice.service.memory.MemoryLedgerStore;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+// Balances live in memory and are moved by a single sequencer thread, so movements never wait
+// on a row lock. A movement is acknowledged once it is forced to the local journal; the wallets
+// table is brought up to date by periodic snapshots and rebuilt from it plus the journal on start.
+// Transaction rows are still written by the caller's database transaction. Every movement is
+// journaled as a hold under its reference before that transaction commits, and settled or released
+// once it completes; holds still open on start are resolved against the committed transaction rows.
+// The journal is local, so start() takes a database advisory lock that keeps a second instance
+// from starting.
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "wallet.balance-engine", havingValue = "memory")
+public class InMemoryBalanceEngine implements BalanceEngine {
+
+    private final MemoryLedgerStore memoryLedgerStore;
+    private final Path journalPath;
+    private final DataSize journalSize;
+    private final boolean journalSync;
+    private final int ringCapacity;
+    private final Duration ackTimeout;
+
+    private Connection ownership;
+    private LedgerJournal journal;
+    private MemoryLedger ledger;
+
+    // Balances from snapshots that failed to persist, retried with the next one, which also carries
+    // every open hold
+    private final Map<UUID, Long> unpersisted = new HashMap<>();
+    private long unpersistedSequence;
+    private long persistedSequence;
+
+    public InMemoryBalanceEngine(MemoryLedgerStore memoryLedgerStore,
+                                 @Value("${wallet.memory.journal-path:data/wallet-journal.bin}") Path journalPath,
+                                 @Value("${wallet.memory.journal-size:64MB}") DataSize journalSize,
+                                 @Value("${wallet.memory.journal-sync:true}") boolean journalSync,
+                                 @Value("${wallet.memory.ring-capacity:65536}") int ringCapacity,
+                                 @Value("${wallet.memory.ack-timeout:5s}") Duration ackTimeout) {
+        this.memoryLedgerStore = memoryLedgerStore;
+        this.journalPath = journalPath;
+        this.journalSize = journalSize;
+        this.journalSync = journalSync;
+        this.ringCapacity = ringCapacity;
+        this.ackTimeout = ackTimeout;
+    }
+
+    @PostConstruct
+    public void start() throws IOException, SQLException, InterruptedException {
+        ownership = memoryLedgerStore.claimOwnership();
+        try {
+            journal = new LedgerJournal(journalPath, Math.toIntExact(journalSize.toBytes()), journalSync);
+            ledger = new MemoryLedger(journal, memoryLedgerStore.loadBalances(), memoryLedgerStore.loadHolds(),
+                    memoryLedgerStore.appliedSequence(), this::persist, ringCapacity);
+            Map<String, MemoryLedger.Hold> openHolds = ledger.openHolds();
+            ledger.start();
+            try {
+                resolveOpenHolds(openHolds.keySet());
+            } catch (RuntimeException e) {
+                ledger.stop();
+                throw e;
+            }
+        } catch (IOException | RuntimeException e) {
+            ownership.close();
+            throw e;
+        }
+        log.info("In-memory balance engine started from journal {}", journalPath.toAbsolutePath());
+    }
+
+    // The previous run stopped before these transactions completed, or before it journaled how they
+    // did. Their rows say which ones committed; the rest are returned to the sender.
+    private void resolveOpenHolds(Set<String> references) {
+        if (references.isEmpty()) {
+            return;
+        }
+        Set<String> committed = memoryLedgerStore.committedReferences(references);
+        for (String reference : references) {
+            CompletableFuture<Boolean> result = committed.contains(reference) ? ledger.settle(reference) : ledger.release(reference);
+            try {
+                result.get(ackTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (Exception e) {
+                throw new IllegalStateException("Could not resolve hold " + reference, e);
+            }
+        }
+        log.info("Resolved {} open holds: {} settled, {} released",
+                references.size(), committed.size(), references.size() - committed.size());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException, IOException, SQLException {
+        try {
+            ledger.stop();
+            journal.close();
+        } finally {
+            ownership.close();
+        }
+    }
+
+    @Scheduled(initialDelayString = "${wallet.memory.flush-interval:1000}",
+            fixedDelayString = "${wallet.memory.flush-interval:1000}")
+    public void flush() {
+        try {
+            ledger.snapshot().get(ackTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            log.warn("Failed to persist in-memory balances: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public long balanceOf(Wallet wallet) {
+        return ledger.balance(wallet.getId());
+    }
+
+    // Funds reach the recipient only once the caller's transaction commits, so a credit that may
+    // still roll back can never be spent.
+    @Override
+    public void credit(UUID walletId, long amount, String reference) {
+        if (!await(ledger.hold(null, walletId, amount, reference), late -> releaseLate(reference, late))) {
+            throw new InternalServerException("Credit " + reference + " is already pending");
+        }
+        onCompletion(() -> resolve(ledger.settle(reference), reference), () -> resolve(ledger.release(reference), reference));
+    }
+
+    @Override
+    public void debit(UUID walletId, long amount, String reference) {
+        hold(walletId, null, amount, reference);
+    }
+
+    // The sender's funds are held straight away and, when the transaction completes, either paid to
+    // the recipient or returned to the sender. Neither needs a funds check and neither can take a
+    // balance below zero.
+    @Override
+    public void transfer(UUID senderWalletId, UUID recipientWalletId, long amount, String reference) {
+        hold(senderWalletId, recipientWalletId, amount, reference);
+    }
+
+    @Override
+    public boolean[] transferBatch(UUID senderWalletId, List<BatchLeg> legs) {
+        UUID[] recipients = legs.stream().map(BatchLeg::recipientWalletId).toArray(UUID[]::new);
+        long[] amounts = legs.stream().mapToLong(BatchLeg::amount).toArray();
+        String[] references = legs.stream().map(BatchLeg::reference).toArray(String[]::new);
+
+        boolean[] applied = await(ledger.holdEach(senderWalletId, recipients, amounts, references), late -> {
+            for (int index = 0; index < late.length; index++) {
+                releaseLate(references[index], late[index]);
+            }
+        });
+        onCompletion(() -> {
+            for (int index = 0; index < applied.length; index++) {
+                if (applied[index]) {
+                    resolve(ledger.settle(references[index]), references[index]);
+                }
+            }
+        }, () -> {
+            for (int index = 0; index < applied.length; index++) {
+                if (applied[index]) {
+                    resolve(ledger.release(references[index]), references[index]);
+                }
+            }
+        });
+        return applied;
+    }
+
+    private void hold(UUID from, UUID to, long amount, String reference) {
+        if (!await(ledger.hold(from, to, amount, reference), late -> releaseLate(reference, late))) {
+            throw new BadRequestException("Insufficient balance");
+        }
+        onCompletion(() -> resolve(ledger.settle(reference), reference), () -> resolve(ledger.release(reference), reference));
+    }
+
+    // The command cannot be withdrawn once queued, so a hold that is applied after the caller
+    // gave up waiting is released as soon as it lands. That happens off the sequencer thread,
+    // which completes the future and must not wait on a command of its own.
+    private <T> T await(CompletableFuture<T> result, Consumer<T> releaseLate) {
+        try {
+            return result.get(ackTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            result.thenAcceptAsync(releaseLate);
+            throw new InternalServerException("Balance engine did not respond in time");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.thenAcceptAsync(releaseLate);
+            throw new InternalServerException("Interrupted while waiting for the balance engine");
+        } catch (ExecutionException e) {
+            log.error("Balance engine is unavailable", e.getCause());
+            throw new InternalServerException("Balance engine is unavailable");
+        }
+    }
+
+    private void releaseLate(String reference, boolean held) {
+        if (held) {
+            resolve(ledger.release(reference), reference);
+        }
+    }
+
+    // Runs after the caller's transaction has committed or rolled back, when throwing would change
+    // nothing. A settle or release still queued when the wait runs out is applied when the sequencer
+    // reaches it. One the sequencer can no longer apply leaves the hold open in the journal and the
+    // last snapshot, and the next start resolves it from the transaction rows.
+    private void resolve(CompletableFuture<Boolean> result, String reference) {
+        try {
+            result.get(ackTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Hold {} is still queued for settlement", reference);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while settling hold {}; it is still queued", reference);
+        } catch (ExecutionException e) {
+            log.error("Hold {} stays open until the balance engine restarts", reference, e.getCause());
+        }
+    }
+
+    private void onCompletion(Runnable committed, Runnable rolledBack) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            committed.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    committed.run();
+                } else {
+                    rolledBack.run();
+                }
+            }
+        });
+    }
+
+    // Only called on the sequencer thread, so snapshots arrive in sequence order and a newer balance
+    // always replaces an older one. A failure before the journal is reused stops the engine rather
+    // than overwriting records that are not persisted; a failed flush is retried with the next one.
+    private void persist(MemoryLedger.Snapshot snapshot) {
+        for (int i = 0; i < snapshot.walletIds().length; i++) {
+            unpersisted.put(snapshot.walletIds()[i], snapshot.balances()[i]);
+        }
+        unpersistedSequence = snapshot.sequence();
+        if (unpersisted.isEmpty() && unpersistedSequence <= persistedSequence) {
+            return;
+        }
+
+        UUID[] walletIds = unpersisted.keySet().toArray(UUID[]::new);
+        long[] balances = new long[walletIds.length];
+        for (int i = 0; i < walletIds.length; i++) {
+            balances[i] = unpersisted.get(walletIds[i]);
+        }
+
+        memoryLedgerStore.persist(new MemoryLedger.Snapshot(unpersistedSequence, walletIds, balances, snapshot.holds()));
+        unpersisted.clear();
+        persistedSequence = unpersistedSequence;
+    }
+}
@@ -0,0 +1,111 @@
+package dev.slethware.walletservice.service.wallet;
+
+import dev.slethware.walletservice.exception.BadRequestException;
+import dev.slethware.walletservice.models.entity.BalanceCheckpoint;
+import dev.slethware.walletservice.models.entity.Posting;
+import dev.slethware.walletservice.models.entity.Wallet;
+import dev.slethware.walletservice.repository.BalanceCheckpointRepository;
+import dev.slethware.walletservice.repository.PostingRepository;
+import dev.slethware.walletservice.service.ledger.LedgerAccounts;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+// Balances are derived from the postings table instead of being stored on the wallet row, so
+// every movement is a pair of inserts. Credits need no lock at all; debits take a transaction-scoped
+// advisory lock on the paying account so two debits cannot both spend the same funds.
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "wallet.balance-engine", havingValue = "ledger")
+public class LedgerBalanceEngine implements BalanceEngine {
+
+    private final PostingRepository postingRepository;
+    private final BalanceCheckpointRepository balanceCheckpointRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public long balanceOf(Wallet wallet) {
+        return balance(wallet.getId());
+    }
+
+    @Override
+    public void credit(UUID walletId, long amount, String reference) {
+        postingRepository.saveAll(entry(LedgerAccounts.DEPOSIT_CLEARING, walletId, amount, reference));
+    }
+
+    @Override
+    public void debit(UUID walletId, long amount, String reference) {
+        lockAccount(walletId);
+        if (balance(walletId) < amount) {
+            throw new BadRequestException("Insufficient balance");
+        }
+        postingRepository.saveAll(entry(walletId, LedgerAccounts.WITHDRAWAL_CLEARING, amount, reference));
+    }
+
+    @Override
+    public void transfer(UUID senderWalletId, UUID recipientWalletId, long amount, String reference) {
+        lockAccount(senderWalletId);
+        if (balance(senderWalletId) < amount) {
+            throw new BadRequestException("Insufficient balance");
+        }
+        postingRepository.saveAll(entry(senderWalletId, recipientWalletId, amount, reference));
+    }
+
+    @Override
+    public boolean[] transferBatch(UUID senderWalletId, List<BatchLeg> legs) {
+        lockAccount(senderWalletId);
+        long available = balance(senderWalletId);
+
+        List<Posting> postings = new ArrayList<>(legs.size() * 2);
+        boolean[] applied = new boolean[legs.size()];
+
+        for (int index = 0; index < legs.size(); index++) {
+            BatchLeg leg = legs.get(index);
+            if (available < leg.amount()) {
+                continue;
+            }
+            available -= leg.amount();
+            postings.addAll(entry(senderWalletId, leg.recipientWalletId(), leg.amount(), leg.reference()));
+            applied[index] = true;
+        }
+
+        postingRepository.saveAll(postings);
+        return applied;
+    }
+
+    private long balance(UUID accountId) {
+        Optional<BalanceCheckpoint> checkpoint = balanceCheckpointRepository.findById(accountId);
+        long base = checkpoint.map(BalanceCheckpoint::getBalance).orElse(0L);
+        return base + postingRepository.sumAmountSince(accountId,
+                checkpoint.map(BalanceCheckpoint::getWatermark).orElse(LedgerAccounts.GENESIS));
+    }
+
+    private void lockAccount(UUID accountId) {
+        long key = accountId.getMostSignificantBits() ^ accountId.getLeastSignificantBits();
+        jdbcTemplate.query("SELECT pg_advisory_xact_lock(?)", rs -> null, key);
+    }
+
+    private List<Posting> entry(UUID debitAccountId, UUID creditAccountId, long amount, String reference) {
+        UUID journalId = UUID.randomUUID();
+        return List.of(
+                Posting.builder()
+                        .journalId(journalId)
+                        .accountId(debitAccountId)
+                        .amount(-amount)
+                        .reference(reference)
+                        .build(),
+                Posting.builder()
+                        .journalId(journalId)
+                        .accountId(creditAccountId)
+                        .amount(amount)
+                        .reference(reference)
+                        .build()
+        );
+    }
+}
@@ -0,0 +1,114 @@
+package dev.slethware.walletservice.service.wallet;
+
+import dev.slethware.walletservice.exception.BadRequestException;
+import dev.slethware.walletservice.exception.ResourceNotFoundException;
+import dev.slethware.walletservice.models.entity.Wallet;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.OptimisticLockException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+
+// Reads wallets without locking and writes them back with a version check, flushed straight away
+// so a conflict surfaces as ObjectOptimisticLockingFailureException and TransactionRetryExecutor
+// replays the whole operation. Wallets that conflict too often are locked as in the pessimistic
+// engine until WalletConflictTracker releases them.
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "wallet.balance-engine", havingValue = "optimistic")
+public class OptimisticBalanceEngine implements BalanceEngine {
+
+    private final EntityManager entityManager;
+    private final BalanceStripes balanceStripes;
+    private final WalletRowBatchTransfer walletRowBatchTransfer;
+    private final WalletConflictTracker walletConflictTracker;
+
+    @Override
+    public long balanceOf(Wallet wallet) {
+        if (wallet.getStripeCount() > 0) {
+            return balanceStripes.balanceWithStripes(wallet.getId());
+        }
+        return wallet.getBalance();
+    }
+
+    @Override
+    public void credit(UUID walletId, long amount, String reference) {
+        if (balanceStripes.credit(walletId, amount)) {
+            return;
+        }
+        Wallet wallet = load(walletId);
+        wallet.setBalance(wallet.getBalance() + amount);
+        write(wallet);
+    }
+
+    @Override
+    public void debit(UUID walletId, long amount, String reference) {
+        Wallet wallet = load(walletId);
+        debit(wallet, amount);
+        write(wallet);
+    }
+
+    // Handled in wallet id order like the pessimistic engine, since either wallet may be locked and
+    // each write holds its row until commit. A failed debit after the credit rolls back with it.
+    @Override
+    public void transfer(UUID senderWalletId, UUID recipientWalletId, long amount, String reference) {
+        if (LOCK_ORDER.compare(senderWalletId, recipientWalletId) < 0) {
+            debit(senderWalletId, amount, reference);
+            credit(recipientWalletId, amount, reference);
+        } else {
+            credit(recipientWalletId, amount, reference);
+            debit(senderWalletId, amount, reference);
+        }
+    }
+
+    // A batch applies many legs against one sender, so it is always run under row locks.
+    @Override
+    public boolean[] transferBatch(UUID senderWalletId, List<BatchLeg> legs) {
+        return walletRowBatchTransfer.apply(senderWalletId, legs);
+    }
+
+    private void debit(Wallet wallet, long amount) {
+        if (wallet.getBalance() < amount && balanceStripes.isStriped(wallet.getId())) {
+            // The stripes may only be locked behind the wallet row, which is re-read under the lock
+            entityManager.refresh(wallet, LockModeType.PESSIMISTIC_WRITE);
+            if (wallet.getBalance() < amount) {
+                wallet.setBalance(wallet.getBalance() + balanceStripes.sweep(wallet.getId()));
+            }
+        }
+        if (wallet.getBalance() < amount) {
+            throw new BadRequestException("Insufficient balance");
+        }
+        wallet.setBalance(wallet.getBalance() - amount);
+    }
+
+    private Wallet load(UUID walletId) {
+        if (walletConflictTracker.isPessimistic(walletId)) {
+            Wallet wallet = entityManager.getReference(Wallet.class, walletId);
+            entityManager.refresh(wallet, LockModeType.PESSIMISTIC_WRITE);
+            return wallet;
+        }
+
+        Wallet wallet = entityManager.find(Wallet.class, walletId);
+        if (wallet == null) {
+            throw new ResourceNotFoundException("Wallet not found");
+        }
+        return wallet;
+    }
+
+    // The UPDATE ... WHERE version = ? issued by the flush also holds the row until commit, so
+    // nothing can change it between this check and the end of the transaction.
+    private void write(Wallet wallet) {
+        try {
+            entityManager.flush();
+        } catch (OptimisticLockException e) {
+            walletConflictTracker.recordConflict(wallet.getId());
+            throw new ObjectOptimisticLockingFailureException(Wallet.class, wallet.getId(), e);
+        }
+        walletConflictTracker.recordWrite(wallet.getId());
+    }
+}
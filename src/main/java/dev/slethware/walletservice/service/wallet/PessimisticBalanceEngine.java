@@ -0,0 +1,87 @@
+package dev.slethware.walletservice.service.wallet;
+
+import dev.slethware.walletservice.exception.BadRequestException;
+import dev.slethware.walletservice.models.entity.Wallet;
+import dev.slethware.walletservice.repository.WalletRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+
+// Loads each wallet under SELECT ... FOR UPDATE and writes the new balance back.
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "wallet.balance-engine", havingValue = "pessimistic", matchIfMissing = true)
+public class PessimisticBalanceEngine implements BalanceEngine {
+
+    private final WalletRepository walletRepository;
+    private final EntityManager entityManager;
+    private final BalanceStripes balanceStripes;
+    private final WalletRowBatchTransfer walletRowBatchTransfer;
+
+    @Override
+    public long balanceOf(Wallet wallet) {
+        if (wallet.getStripeCount() > 0) {
+            return balanceStripes.balanceWithStripes(wallet.getId());
+        }
+        return wallet.getBalance();
+    }
+
+    @Override
+    public void credit(UUID walletId, long amount, String reference) {
+        if (balanceStripes.credit(walletId, amount)) {
+            return;
+        }
+        Wallet wallet = lockWallet(walletId);
+        wallet.setBalance(wallet.getBalance() + amount);
+        walletRepository.save(wallet);
+    }
+
+    @Override
+    public void debit(UUID walletId, long amount, String reference) {
+        Wallet wallet = lockWallet(walletId);
+        debit(wallet, amount);
+        walletRepository.save(wallet);
+    }
+
+    // The two wallets are handled in wallet id order, each one's stripes after its own row, so
+    // opposite transfers between the same pair queue behind each other instead of deadlocking.
+    // A failed debit after the credit rolls back with it.
+    @Override
+    public void transfer(UUID senderWalletId, UUID recipientWalletId, long amount, String reference) {
+        if (LOCK_ORDER.compare(senderWalletId, recipientWalletId) < 0) {
+            debit(senderWalletId, amount, reference);
+            credit(recipientWalletId, amount, reference);
+        } else {
+            credit(recipientWalletId, amount, reference);
+            debit(senderWalletId, amount, reference);
+        }
+    }
+
+    @Override
+    public boolean[] transferBatch(UUID senderWalletId, List<BatchLeg> legs) {
+        return walletRowBatchTransfer.apply(senderWalletId, legs);
+    }
+
+    private void debit(Wallet wallet, long amount) {
+        if (wallet.getBalance() < amount) {
+            wallet.setBalance(wallet.getBalance() + balanceStripes.sweep(wallet.getId()));
+        }
+        if (wallet.getBalance() < amount) {
+            throw new BadRequestException("Insufficient balance");
+        }
+        wallet.setBalance(wallet.getBalance() - amount);
+    }
+
+    // A lock query would hand back a wallet already loaded in this transaction without re-reading it,
+    // so the row is refreshed under the lock instead.
+    private Wallet lockWallet(UUID walletId) {
+        Wallet wallet = entityManager.getReference(Wallet.class, walletId);
+        entityManager.refresh(wallet, LockModeType.PESSIMISTIC_WRITE);
+        return wallet;
+    }
+}
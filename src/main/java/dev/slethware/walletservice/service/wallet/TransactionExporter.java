@@ -0,0 +1,120 @@
+package dev.slethware.walletservice.service.wallet;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.slethware.walletservice.exception.TooManyRequestsException;
+import dev.slethware.walletservice.models.dtos.response.TransactionResponse;
+import dev.slethware.walletservice.models.entity.Transaction;
+import dev.slethware.walletservice.models.enums.TransactionExportFormat;
+import dev.slethware.walletservice.models.enums.TransactionType;
+import dev.slethware.walletservice.repository.TransactionRepository;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Stream;
+
+// Writes a wallet's history straight from a database cursor to the response. Each row is
+// detached once written, so memory use does not grow with the size of the history. An export
+// holds a pooled connection for as long as the client keeps reading, so only a few run at once
+// and the rest are turned away before their response starts.
+@Slf4j
+@Component
+public class TransactionExporter {
+
+    private static final String CSV_HEADER = "created_at,reference,type,status,amount\n";
+
+    private final TransactionRepository transactionRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Semaphore exportPermits;
+
+    public TransactionExporter(TransactionRepository transactionRepository,
+                               EntityManager entityManager,
+                               ObjectMapper objectMapper,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${wallet.export.max-concurrent:2}") int maxConcurrent) {
+        this.transactionRepository = transactionRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.exportPermits = new Semaphore(maxConcurrent);
+    }
+
+    // The permit is taken on the request thread, where a refusal can still become a 429, and is
+    // given back once the body has been written or has failed.
+    public StreamingResponseBody export(UUID walletId, LocalDateTime from, LocalDateTime to,
+                                        Collection<TransactionType> types, TransactionExportFormat format) {
+        if (!exportPermits.tryAcquire()) {
+            throw new TooManyRequestsException("Too many exports are running, please retry later");
+        }
+        return outputStream -> {
+            try {
+                write(walletId, from, to, types, format, outputStream);
+            } finally {
+                exportPermits.release();
+            }
+        };
+    }
+
+    private void write(UUID walletId, LocalDateTime from, LocalDateTime to, Collection<TransactionType> types,
+                       TransactionExportFormat format, OutputStream outputStream) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), 64 * 1024);
+            long rows = 0;
+
+            try (Stream<Transaction> transactions = transactionRepository.streamForExport(walletId, from, to, types)) {
+                if (format == TransactionExportFormat.CSV) {
+                    writer.write(CSV_HEADER);
+                }
+
+                for (Transaction transaction : (Iterable<Transaction>) transactions::iterator) {
+                    write(writer, transaction, format);
+                    entityManager.detach(transaction);
+                    rows++;
+                }
+                writer.flush();
+            } catch (IOException e) {
+                // Usually the client going away; the transaction still ends and the cursor is closed
+                throw new UncheckedIOException(e);
+            }
+
+            log.info("Exported {} transactions of wallet {} as {}", rows, walletId, format);
+        });
+    }
+
+    private void write(Writer writer, Transaction transaction, TransactionExportFormat format) throws IOException {
+        TransactionResponse row = TransactionResponse.builder()
+                .type(transaction.getType().name().toLowerCase())
+                .amount(transaction.getAmount())
+                .status(transaction.getStatus().name().toLowerCase())
+                .reference(transaction.getReference())
+                .createdAt(transaction.getCreatedAt())
+                .build();
+
+        if (format == TransactionExportFormat.NDJSON) {
+            writer.write(objectMapper.writeValueAsString(row));
+        } else {
+            writer.write(row.createdAt() + "," + csv(row.reference()) + "," + row.type() + "," + row.status() + "," + row.amount());
+        }
+        writer.write('\n');
+    }
+
+    private static String csv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,89 @@
+package dev.slethware.walletservice.service.wallet;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+// Runs a unit of work in its own transaction and replays it when the database aborts it
+// with a deadlock or serialization failure. Each attempt needs a fresh transaction, so a unit
+// started inside an existing one just joins it and leaves retrying to the outermost executor.
+@Slf4j
+@Component
+public class TransactionRetryExecutor {
+
+    private static final String DEADLOCK_SQL_STATE = "40P01";
+
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int maxAttempts;
+    private final long baseBackoffMillis;
+    private final long maxBackoffMillis;
+
+    public TransactionRetryExecutor(PlatformTransactionManager transactionManager,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${wallet.retry.max-attempts:3}") int maxAttempts,
+                                    @Value("${wallet.retry.base-backoff:20ms}") Duration baseBackoff,
+                                    @Value("${wallet.retry.max-backoff:200ms}") Duration maxBackoff) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseBackoffMillis = baseBackoff.toMillis();
+        this.maxBackoffMillis = maxBackoff.toMillis();
+    }
+
+    public <T> T execute(String operation, Supplier<T> work) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return work.get();
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> work.get());
+            } catch (ConcurrencyFailureException e) {
+                if (isDeadlock(e)) {
+                    meterRegistry.counter("wallet.tx.deadlocks", "operation", operation).increment();
+                }
+
+                if (attempt >= maxAttempts) {
+                    meterRegistry.counter("wallet.tx.retries.exhausted", "operation", operation).increment();
+                    log.warn("{} aborted after {} attempts: {}", operation, attempt, e.getMessage());
+                    throw e;
+                }
+
+                meterRegistry.counter("wallet.tx.retries", "operation", operation).increment();
+                log.info("{} hit a lock conflict on attempt {}, retrying", operation, attempt);
+                backoff(attempt);
+            }
+        }
+    }
+
+    // Full jitter keeps two colliding requests from waking up and colliding again.
+    private void backoff(int attempt) {
+        long ceiling = Math.min(maxBackoffMillis, baseBackoffMillis << Math.min(attempt - 1, 16));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to retry", e);
+        }
+    }
+
+    private boolean isDeadlock(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException
+                    && DEADLOCK_SQL_STATE.equals(sqlException.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
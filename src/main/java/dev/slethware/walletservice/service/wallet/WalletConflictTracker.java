@@ -0,0 +1,134 @@
+package dev.slethware.walletservice.service.wallet;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+// Optimistic write outcomes per wallet over a fixed window. A wallet whose conflict rate passes
+// the threshold is locked pessimistically for the hold period, after which it is tried
+// optimistically again with fresh counts.
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "wallet.balance-engine", havingValue = "optimistic")
+public class WalletConflictTracker {
+
+    public record WalletConflictRate(UUID walletId, long writes, long conflicts, double conflictRate, boolean pessimistic) {
+    }
+
+    private final Cache<UUID, WindowStats> stats;
+    private final Counter conflictCounter;
+    private final Counter fallbackCounter;
+    private final double threshold;
+    private final int minSamples;
+    private final long windowNanos;
+    private final long holdNanos;
+
+    public WalletConflictTracker(MeterRegistry meterRegistry,
+                                 @Value("${wallet.optimistic.conflict-threshold:0.2}") double threshold,
+                                 @Value("${wallet.optimistic.min-samples:20}") int minSamples,
+                                 @Value("${wallet.optimistic.window:1m}") Duration window,
+                                 @Value("${wallet.optimistic.pessimistic-hold:5m}") Duration hold,
+                                 @Value("${wallet.optimistic.cache.max-size:10000}") long maxSize) {
+        this.threshold = threshold;
+        this.minSamples = minSamples;
+        this.windowNanos = window.toNanos();
+        this.holdNanos = hold.toNanos();
+        this.stats = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterAccess(window.plus(hold))
+                .recordStats()
+                .build();
+
+        this.conflictCounter = meterRegistry.counter("wallet.optimistic.conflicts");
+        this.fallbackCounter = meterRegistry.counter("wallet.optimistic.fallbacks");
+        meterRegistry.gauge("wallet.optimistic.pessimistic.wallets", this, WalletConflictTracker::pessimisticWallets);
+        CaffeineCacheMetrics.monitor(meterRegistry, stats, "walletConflicts");
+    }
+
+    public boolean isPessimistic(UUID walletId) {
+        WindowStats walletStats = stats.getIfPresent(walletId);
+        return walletStats != null && walletStats.isPessimistic(System.nanoTime());
+    }
+
+    public void recordWrite(UUID walletId) {
+        stats.get(walletId, id -> new WindowStats()).record(false, System.nanoTime());
+    }
+
+    public void recordConflict(UUID walletId) {
+        conflictCounter.increment();
+        if (stats.get(walletId, id -> new WindowStats()).record(true, System.nanoTime())) {
+            fallbackCounter.increment();
+            log.info("Wallet {} passed the optimistic conflict threshold, locking it pessimistically", walletId);
+        }
+    }
+
+    // Highest conflict rates first
+    public List<WalletConflictRate> conflictRates(int limit) {
+        long now = System.nanoTime();
+        return stats.asMap().entrySet().stream()
+                .map(entry -> entry.getValue().toRate(entry.getKey(), now))
+                .filter(rate -> rate.writes() > 0 || rate.pessimistic())
+                .sorted(Comparator.comparingDouble(WalletConflictRate::conflictRate).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    private double pessimisticWallets() {
+        long now = System.nanoTime();
+        return stats.asMap().values().stream().filter(walletStats -> walletStats.isPessimistic(now)).count();
+    }
+
+    private final class WindowStats {
+
+        private long windowStart = System.nanoTime();
+        private long writes;
+        private long conflicts;
+        private volatile long pessimisticUntil;
+        private volatile boolean holding;
+
+        boolean isPessimistic(long now) {
+            return holding && now - pessimisticUntil < 0;
+        }
+
+        // Returns true when this conflict switched the wallet to pessimistic locking
+        synchronized boolean record(boolean conflict, long now) {
+            if (now - windowStart > windowNanos) {
+                windowStart = now;
+                writes = 0;
+                conflicts = 0;
+            }
+            writes++;
+            if (!conflict) {
+                return false;
+            }
+            conflicts++;
+
+            if (isPessimistic(now) || writes < minSamples || (double) conflicts / writes < threshold) {
+                return false;
+            }
+            pessimisticUntil = now + holdNanos;
+            holding = true;
+            windowStart = pessimisticUntil;
+            writes = 0;
+            conflicts = 0;
+            return true;
+        }
+
+        synchronized WalletConflictRate toRate(UUID walletId, long now) {
+            boolean pessimistic = isPessimistic(now);
+            return new WalletConflictRate(walletId, writes, conflicts,
+                    writes == 0 ? 0 : (double) conflicts / writes, pessimistic);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package dev.slethware.walletservice.service.wallet;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// GET /actuator/walletconflicts?limit=50 lists the wallets with the highest optimistic conflict rates.
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "wallet.balance-engine", havingValue = "optimistic")
+@Endpoint(id = "walletconflicts")
+public class WalletConflictsEndpoint {
+
+    private final WalletConflictTracker walletConflictTracker;
+
+    @ReadOperation
+    public List<WalletConflictTracker.WalletConflictRate> conflictRates(@Nullable Integer limit) {
+        return walletConflictTracker.conflictRates(limit == null ? 50 : Math.min(limit, 1000));
+    }
+}
@@ -0,0 +1,67 @@
+package dev.slethware.walletservice.service.wallet;
+
+import dev.slethware.walletservice.models.entity.Wallet;
+import dev.slethware.walletservice.repository.WalletRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+// Batch transfers for the engines that keep balances on wallet rows: the sender and every
+// recipient are locked with id-ordered queries and updated in memory, so the balance changes flush
+// as one JDBC batch.
+@Component
+@RequiredArgsConstructor
+public class WalletRowBatchTransfer {
+
+    private final WalletRepository walletRepository;
+    private final BalanceStripes balanceStripes;
+
+    // Wallets are locked in LOCK_ORDER and the sender's stripes are swept right after its own row,
+    // before any row that sorts after it, so the batch takes locks in the same order as single
+    // transfers. Striped recipients are credited on their wallet rows, which are locked anyway.
+    public boolean[] apply(UUID senderWalletId, List<BalanceEngine.BatchLeg> legs) {
+        Map<Boolean, List<UUID>> recipientsBeforeSender = legs.stream()
+                .map(BalanceEngine.BatchLeg::recipientWalletId)
+                .distinct()
+                .filter(walletId -> !walletId.equals(senderWalletId))
+                .collect(Collectors.partitioningBy(
+                        walletId -> BalanceEngine.LOCK_ORDER.compare(walletId, senderWalletId) < 0));
+
+        Map<UUID, Wallet> lockedWallets = new HashMap<>();
+        lock(recipientsBeforeSender.get(true), lockedWallets);
+        lock(List.of(senderWalletId), lockedWallets);
+        Wallet senderWallet = lockedWallets.get(senderWalletId);
+
+        long total = legs.stream().mapToLong(BalanceEngine.BatchLeg::amount).sum();
+        if (senderWallet.getBalance() < total) {
+            senderWallet.setBalance(senderWallet.getBalance() + balanceStripes.sweep(senderWalletId));
+        }
+        lock(recipientsBeforeSender.get(false), lockedWallets);
+
+        boolean[] applied = new boolean[legs.size()];
+        for (int index = 0; index < legs.size(); index++) {
+            BalanceEngine.BatchLeg leg = legs.get(index);
+            if (senderWallet.getBalance() < leg.amount()) {
+                continue;
+            }
+
+            senderWallet.setBalance(senderWallet.getBalance() - leg.amount());
+            Wallet recipientWallet = lockedWallets.get(leg.recipientWalletId());
+            recipientWallet.setBalance(recipientWallet.getBalance() + leg.amount());
+            applied[index] = true;
+        }
+
+        walletRepository.saveAll(lockedWallets.values());
+        return applied;
+    }
+
+    private void lock(Collection<UUID> walletIds, Map<UUID, Wallet> lockedWallets) {
+        if (walletIds.isEmpty()) {
+            return;
+        }
+        walletRepository.findAllByIdInForUpdate(walletIds)
+                .forEach(wallet -> lockedWallets.put(wallet.getId(), wallet));
+    }
+}
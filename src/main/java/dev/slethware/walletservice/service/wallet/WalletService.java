@@ -1,13 +1,19 @@
 package dev.slethware.walletservice.service.wallet;
 
+import dev.slethware.walletservice.models.dtos.request.BalanceStripesRequest;
+import dev.slethware.walletservice.models.dtos.request.BatchTransferRequest;
 import dev.slethware.walletservice.models.dtos.request.DepositRequest;
 import dev.slethware.walletservice.models.dtos.request.TransferRequest;
 import dev.slethware.walletservice.models.dtos.request.WithdrawRequest;
 import dev.slethware.walletservice.models.dtos.response.*;
 import dev.slethware.walletservice.models.entity.User;
+import dev.slethware.walletservice.models.enums.TransactionExportFormat;
+import dev.slethware.walletservice.models.enums.TransactionType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.util.Map;
 
 public interface WalletService {
@@ -17,6 +23,10 @@ public interface WalletService {
     ApiResponse<DepositStatusResponse> getDepositStatus(String reference);
     ApiResponse<BalanceResponse> getBalance();
     ApiResponse<TransferResponse> transfer(TransferRequest request);
+    ApiResponse<BatchTransferResponse> transferBatch(BatchTransferRequest request);
     ApiResponse<WithdrawResponse> withdraw(WithdrawRequest request);
     ApiResponse<Page<TransactionResponse>> getTransactions(Pageable pageable);
+    ApiResponse<TransactionCursorPage> getTransactionsByCursor(String cursor, int size);
+    StreamingResponseBody exportTransactions(TransactionExportFormat format, LocalDate from, LocalDate to, TransactionType type);
+    ApiResponse<BalanceResponse> configureBalanceStripes(BalanceStripesRequest request);
 }
\ No newline at end of file
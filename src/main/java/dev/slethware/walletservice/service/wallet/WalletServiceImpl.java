@@ -3,6 +3,8 @@ package dev.slethware.walletservice.service.wallet;
 import com.google.gson.Gson;
 import dev.slethware.walletservice.exception.BadRequestException;
 import dev.slethware.walletservice.exception.ResourceNotFoundException;
+import dev.slethware.walletservice.models.dtos.request.BalanceStripesRequest;
+import dev.slethware.walletservice.models.dtos.request.BatchTransferRequest;
 import dev.slethware.walletservice.models.dtos.request.DepositRequest;
 import dev.slethware.walletservice.models.dtos.request.TransferRequest;
 import dev.slethware.walletservice.models.dtos.request.WithdrawRequest;
@@ -10,33 +12,63 @@ import dev.slethware.walletservice.models.dtos.response.*;
 import dev.slethware.walletservice.models.entity.Transaction;
 import dev.slethware.walletservice.models.entity.User;
 import dev.slethware.walletservice.models.entity.Wallet;
+import dev.slethware.walletservice.models.enums.TransactionExportFormat;
 import dev.slethware.walletservice.models.enums.TransactionStatus;
 import dev.slethware.walletservice.models.enums.TransactionType;
+import dev.slethware.walletservice.models.projection.TransactionView;
+import dev.slethware.walletservice.models.projection.WalletSummary;
 import dev.slethware.walletservice.repository.TransactionRepository;
 import dev.slethware.walletservice.repository.WalletRepository;
 import dev.slethware.walletservice.service.paystack.PaystackService;
 import dev.slethware.walletservice.service.user.UserService;
+import dev.slethware.walletservice.utility.ReferenceGenerator;
+import dev.slethware.walletservice.utility.TransactionCursor;
 import dev.slethware.walletservice.utility.WalletNumberGenerator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class WalletServiceImpl implements WalletService {
 
+    // References from ReferenceGenerator are generated moments before their row is inserted
+    private static final Duration REFERENCE_LEAD = Duration.ofMinutes(5);
+    private static final Duration REFERENCE_LAG = Duration.ofHours(1);
+    private static final LocalDateTime LEGACY_REFERENCE_EPOCH = LocalDateTime.of(2000, 1, 1, 0, 0);
+
     private final WalletRepository walletRepository;
     private final TransactionRepository transactionRepository;
     private final PaystackService paystackService;
+    private final BalanceEngine balanceEngine;
+    private final BalanceStripes balanceStripes;
+    private final TransactionRetryExecutor transactionRetryExecutor;
+    private final ReferenceGenerator referenceGenerator;
+    private final TransactionExporter transactionExporter;
     private final Gson gson;
 
+    @Value("${wallet.batch.max-transfers:500}")
+    private int maxBatchTransfers;
+
+    @Value("${wallet.history.max-page-size:100}")
+    private int maxHistoryPageSize;
+
     @Override
     @Transactional
     public void createWalletForUser(User user) {
@@ -63,8 +95,7 @@ public class WalletServiceImpl implements WalletService {
     @Override
     @Transactional
     public ApiResponse<DepositResponse> initiateDeposit(DepositRequest request) {
-        User currentUser = UserService.getLoggedInUser();
-        Wallet wallet = getWalletByUser(currentUser);
+        Wallet wallet = getWalletByUserId(UserService.getCurrentUserId());
 
         String reference = paystackService.generateReference();
 
@@ -80,7 +111,7 @@ public class WalletServiceImpl implements WalletService {
         transactionRepository.save(transaction);
 
         String authorizationUrl = paystackService.initializeTransaction(
-                currentUser.getEmail(),
+                UserService.getCurrentUserEmail(),
                 request.amount(),
                 reference
         );
@@ -99,12 +130,18 @@ public class WalletServiceImpl implements WalletService {
     }
 
     @Override
-    @Transactional
     public void processWebhook(String payload, String signature) {
         if (!paystackService.verifyWebhookSignature(payload, signature)) {
             throw new BadRequestException("Invalid webhook signature");
         }
 
+        transactionRetryExecutor.execute("webhook", () -> {
+            applyWebhook(payload);
+            return null;
+        });
+    }
+
+    private void applyWebhook(String payload) {
         Map<String, Object> payloadMap = gson.fromJson(payload, Map.class);
 
         String event = (String) payloadMap.get("event");
@@ -120,7 +157,8 @@ public class WalletServiceImpl implements WalletService {
         String status = (String) data.get("status");
         Long amountInKobo = ((Number) data.get("amount")).longValue();
 
-        Transaction transaction = transactionRepository.findByReferenceForUpdate(reference)
+        CreatedAtRange range = createdAtRange(reference);
+        Transaction transaction = transactionRepository.findByReferenceForUpdate(reference, range.from(), range.to())
                 .orElseThrow(() -> new ResourceNotFoundException("Transaction not found"));
 
         if (transaction.getStatus() != TransactionStatus.PENDING) {
@@ -137,14 +175,14 @@ public class WalletServiceImpl implements WalletService {
                 return;
             }
 
-            Wallet wallet = transaction.getWallet();
-            wallet.setBalance(wallet.getBalance() + amountInKobo);
-            walletRepository.save(wallet);
+            // Only the id is read, so the lazy wallet proxy is never initialized
+            UUID walletId = transaction.getWallet().getId();
+            balanceEngine.credit(walletId, amountInKobo, reference);
 
             transaction.setStatus(TransactionStatus.SUCCESS);
             transactionRepository.save(transaction);
 
-            log.info("Credited wallet {} with {} kobo", wallet.getWalletNumber(), amountInKobo);
+            log.info("Credited wallet {} with {} kobo for {}", walletId, amountInKobo, reference);
         } else {
             transaction.setStatus(TransactionStatus.FAILED);
             transactionRepository.save(transaction);
@@ -153,14 +191,16 @@ public class WalletServiceImpl implements WalletService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public ApiResponse<DepositStatusResponse> getDepositStatus(String reference) {
-        Transaction transaction = transactionRepository.findByReference(reference)
+        CreatedAtRange range = createdAtRange(reference);
+        TransactionView transaction = transactionRepository.findViewByReference(reference, range.from(), range.to())
                 .orElseThrow(() -> new ResourceNotFoundException("Transaction not found"));
 
         DepositStatusResponse statusResponse = DepositStatusResponse.builder()
-                .reference(transaction.getReference())
-                .status(transaction.getStatus().name().toLowerCase())
-                .amount(transaction.getAmount())
+                .reference(transaction.reference())
+                .status(transaction.status().name().toLowerCase())
+                .amount(transaction.amount())
                 .build();
 
         return ApiResponse.<DepositStatusResponse>builder()
@@ -172,74 +212,64 @@ public class WalletServiceImpl implements WalletService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public ApiResponse<BalanceResponse> getBalance() {
-        User currentUser = UserService.getLoggedInUser();
-        Wallet wallet = getWalletByUser(currentUser);
-
-        BalanceResponse balanceResponse = BalanceResponse.builder()
-                .balance(wallet.getBalance())
-                .walletNumber(wallet.getWalletNumber())
-                .build();
+        Wallet wallet = getWalletByUserId(UserService.getCurrentUserId());
 
         return ApiResponse.<BalanceResponse>builder()
                 .status("success")
                 .statusCode(200)
                 .message("Balance retrieved successfully")
-                .data(balanceResponse)
+                .data(toBalanceResponse(wallet))
                 .build();
     }
 
     @Override
-    @Transactional
     public ApiResponse<TransferResponse> transfer(TransferRequest request) {
-        User currentUser = UserService.getLoggedInUser();
-        Wallet senderWallet = walletRepository.findByUserIdForUpdate(currentUser.getId())
+        UUID userId = UserService.getCurrentUserId();
+        return transactionRetryExecutor.execute("transfer", () -> executeTransfer(userId, request));
+    }
+
+    private ApiResponse<TransferResponse> executeTransfer(UUID userId, TransferRequest request) {
+        WalletSummary senderWallet = walletRepository.findSummaryByUserId(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("Wallet not found"));
 
-        Wallet recipientWallet = walletRepository.findByWalletNumberForUpdate(request.walletNumber())
+        WalletSummary recipientWallet = walletRepository.findSummaryByWalletNumber(request.walletNumber())
                 .orElseThrow(() -> new ResourceNotFoundException("Recipient wallet not found"));
 
-        if (senderWallet.getId().equals(recipientWallet.getId())) {
+        if (senderWallet.id().equals(recipientWallet.id())) {
             throw new BadRequestException("Cannot transfer to your own wallet");
         }
 
         long amountInKobo = request.amount();
 
-        if (senderWallet.getBalance() < amountInKobo) {
-            throw new BadRequestException("Insufficient balance");
-        }
-
-        senderWallet.setBalance(senderWallet.getBalance() - amountInKobo);
-        recipientWallet.setBalance(recipientWallet.getBalance() + amountInKobo);
+        String reference = referenceGenerator.next("TRF");
 
-        walletRepository.save(senderWallet);
-        walletRepository.save(recipientWallet);
-
-        String reference = "TRF_" + System.currentTimeMillis();
+        balanceEngine.transfer(senderWallet.id(), recipientWallet.id(), amountInKobo, reference);
 
         Transaction debitTransaction = Transaction.builder()
-                .wallet(senderWallet)
+                .wallet(walletRepository.getReferenceById(senderWallet.id()))
                 .type(TransactionType.TRANSFER)
                 .amount(amountInKobo)
                 .status(TransactionStatus.SUCCESS)
                 .reference(reference + "_DEBIT")
-                .metadata(Map.of("recipientWallet", recipientWallet.getWalletNumber()))
+                .metadata(Map.of("recipientWallet", recipientWallet.walletNumber()))
                 .build();
 
         Transaction creditTransaction = Transaction.builder()
-                .wallet(recipientWallet)
+                .wallet(walletRepository.getReferenceById(recipientWallet.id()))
                 .type(TransactionType.TRANSFER)
                 .amount(amountInKobo)
                 .status(TransactionStatus.SUCCESS)
                 .reference(reference + "_CREDIT")
-                .metadata(Map.of("senderWallet", senderWallet.getWalletNumber()))
+                .metadata(Map.of("senderWallet", senderWallet.walletNumber()))
                 .build();
 
-        transactionRepository.save(debitTransaction);
-        transactionRepository.save(creditTransaction);
+        // Ids are assigned before the insert, so both rows go out in one JDBC batch at flush
+        transactionRepository.saveAll(List.of(debitTransaction, creditTransaction));
 
         log.info("Transfer completed: {} -> {}, amount: {} kobo",
-                senderWallet.getWalletNumber(), recipientWallet.getWalletNumber(), amountInKobo);
+                senderWallet.walletNumber(), recipientWallet.walletNumber(), amountInKobo);
 
         TransferResponse transferResponse = TransferResponse.builder()
                 .reference(reference)
@@ -256,25 +286,134 @@ public class WalletServiceImpl implements WalletService {
     }
 
     @Override
-    @Transactional
-    public ApiResponse<WithdrawResponse> withdraw(WithdrawRequest request) {
-        User currentUser = UserService.getLoggedInUser();
-        Wallet wallet = walletRepository.findByUserIdForUpdate(currentUser.getId())
+    public ApiResponse<BatchTransferResponse> transferBatch(BatchTransferRequest request) {
+        if (request.transfers().size() > maxBatchTransfers) {
+            throw new BadRequestException("A batch cannot contain more than " + maxBatchTransfers + " transfers");
+        }
+
+        UUID userId = UserService.getCurrentUserId();
+        return transactionRetryExecutor.execute("batch-transfer", () -> executeTransferBatch(userId, request.transfers()));
+    }
+
+    // Legs are applied in request order against the sender's balance. A leg that cannot be applied
+    // is reported as failed without affecting the others, and everything commits in one transaction.
+    private ApiResponse<BatchTransferResponse> executeTransferBatch(UUID userId, List<TransferRequest> legs) {
+        WalletSummary senderWallet = walletRepository.findSummaryByUserId(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("Wallet not found"));
 
-        long amountInKobo = request.amount();
+        Set<String> walletNumbers = legs.stream().map(TransferRequest::walletNumber).collect(Collectors.toSet());
+        Map<String, WalletSummary> recipients = walletRepository.findSummariesByWalletNumberIn(walletNumbers).stream()
+                .collect(Collectors.toMap(WalletSummary::walletNumber, Function.identity()));
+
+        String batchReference = referenceGenerator.next("BTR");
+        BatchTransferLegResult[] results = new BatchTransferLegResult[legs.size()];
+        List<Integer> engineLegIndexes = new ArrayList<>(legs.size());
+        List<BalanceEngine.BatchLeg> engineLegs = new ArrayList<>(legs.size());
 
-        if (wallet.getBalance() < amountInKobo) {
-            throw new BadRequestException("Insufficient balance");
+        for (int index = 0; index < legs.size(); index++) {
+            TransferRequest leg = legs.get(index);
+            WalletSummary recipient = recipients.get(leg.walletNumber());
+
+            if (recipient == null || recipient.id().equals(senderWallet.id())) {
+                results[index] = legResult(index, leg, null, "failed",
+                        recipient == null ? "Recipient wallet not found" : "Cannot transfer to your own wallet");
+                continue;
+            }
+
+            engineLegIndexes.add(index);
+            engineLegs.add(new BalanceEngine.BatchLeg(recipient.id(), leg.amount(), batchReference + "_" + index));
         }
 
-        wallet.setBalance(wallet.getBalance() - amountInKobo);
-        walletRepository.save(wallet);
+        boolean[] applied = balanceEngine.transferBatch(senderWallet.id(), engineLegs);
+
+        List<Transaction> ledgerEntries = new ArrayList<>(engineLegs.size() * 2);
+        long totalAmount = 0;
+
+        for (int i = 0; i < engineLegs.size(); i++) {
+            int index = engineLegIndexes.get(i);
+            TransferRequest leg = legs.get(index);
+            BalanceEngine.BatchLeg engineLeg = engineLegs.get(i);
+
+            if (!applied[i]) {
+                results[index] = legResult(index, leg, null, "failed", "Insufficient balance");
+                continue;
+            }
+
+            totalAmount += engineLeg.amount();
+
+            ledgerEntries.add(Transaction.builder()
+                    .wallet(walletRepository.getReferenceById(senderWallet.id()))
+                    .type(TransactionType.TRANSFER)
+                    .amount(engineLeg.amount())
+                    .status(TransactionStatus.SUCCESS)
+                    .reference(engineLeg.reference() + "_DEBIT")
+                    .metadata(Map.of("recipientWallet", leg.walletNumber(), "batchReference", batchReference))
+                    .build());
+
+            ledgerEntries.add(Transaction.builder()
+                    .wallet(walletRepository.getReferenceById(engineLeg.recipientWalletId()))
+                    .type(TransactionType.TRANSFER)
+                    .amount(engineLeg.amount())
+                    .status(TransactionStatus.SUCCESS)
+                    .reference(engineLeg.reference() + "_CREDIT")
+                    .metadata(Map.of("senderWallet", senderWallet.walletNumber(), "batchReference", batchReference))
+                    .build());
+
+            results[index] = legResult(index, leg, engineLeg.reference(), "success", "Transfer completed");
+        }
+
+        transactionRepository.saveAll(ledgerEntries);
+
+        int succeeded = ledgerEntries.size() / 2;
+
+        log.info("Batch transfer {} from {}: {} of {} legs completed, amount: {} kobo",
+                batchReference, senderWallet.walletNumber(), succeeded, legs.size(), totalAmount);
+
+        BatchTransferResponse batchResponse = BatchTransferResponse.builder()
+                .reference(batchReference)
+                .succeeded(succeeded)
+                .failed(legs.size() - succeeded)
+                .totalAmount(totalAmount)
+                .transfers(List.of(results))
+                .build();
+
+        return ApiResponse.<BatchTransferResponse>builder()
+                .status("success")
+                .statusCode(200)
+                .message("Batch transfer processed")
+                .data(batchResponse)
+                .build();
+    }
+
+    private BatchTransferLegResult legResult(int index, TransferRequest leg, String reference, String status, String message) {
+        return BatchTransferLegResult.builder()
+                .index(index)
+                .walletNumber(leg.walletNumber())
+                .amount(leg.amount())
+                .reference(reference)
+                .status(status)
+                .message(message)
+                .build();
+    }
+
+    @Override
+    public ApiResponse<WithdrawResponse> withdraw(WithdrawRequest request) {
+        UUID userId = UserService.getCurrentUserId();
+        return transactionRetryExecutor.execute("withdraw", () -> executeWithdraw(userId, request));
+    }
+
+    private ApiResponse<WithdrawResponse> executeWithdraw(UUID userId, WithdrawRequest request) {
+        WalletSummary wallet = walletRepository.findSummaryByUserId(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Wallet not found"));
+
+        long amountInKobo = request.amount();
 
-        String reference = "WDR_" + System.currentTimeMillis();
+        String reference = referenceGenerator.next("WDR");
+
+        balanceEngine.debit(wallet.id(), amountInKobo, reference);
 
         Transaction transaction = Transaction.builder()
-                .wallet(wallet)
+                .wallet(walletRepository.getReferenceById(wallet.id()))
                 .type(TransactionType.WITHDRAWAL)
                 .amount(amountInKobo)
                 .status(TransactionStatus.SUCCESS)
@@ -285,7 +424,7 @@ public class WalletServiceImpl implements WalletService {
         transactionRepository.save(transaction);
 
         log.info("Withdrawal completed: wallet {}, amount: {} kobo",
-                wallet.getWalletNumber(), amountInKobo);
+                wallet.walletNumber(), amountInKobo);
 
         WithdrawResponse withdrawResponse = WithdrawResponse.builder()
                 .reference(reference)
@@ -302,19 +441,14 @@ public class WalletServiceImpl implements WalletService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public ApiResponse<Page<TransactionResponse>> getTransactions(Pageable pageable) {
-        User currentUser = UserService.getLoggedInUser();
-        Wallet wallet = getWalletByUser(currentUser);
+        WalletSummary wallet = walletRepository.findSummaryByUserId(UserService.getCurrentUserId())
+                .orElseThrow(() -> new ResourceNotFoundException("Wallet not found"));
 
-        Page<Transaction> transactions = transactionRepository.findByWalletIdOrderByCreatedAtDesc(wallet.getId(), pageable);
+        Page<TransactionView> transactions = transactionRepository.findViewsByWalletId(wallet.id(), wallet.createdAt(), pageable);
 
-        Page<TransactionResponse> transactionResponses = transactions.map(t -> TransactionResponse.builder()
-                .type(t.getType().name().toLowerCase())
-                .amount(t.getAmount())
-                .status(t.getStatus().name().toLowerCase())
-                .reference(t.getReference())
-                .createdAt(t.getCreatedAt())
-                .build());
+        Page<TransactionResponse> transactionResponses = transactions.map(this::toTransactionResponse);
 
         return ApiResponse.<Page<TransactionResponse>>builder()
                 .status("success")
@@ -324,8 +458,120 @@ public class WalletServiceImpl implements WalletService {
                 .build();
     }
 
-    private Wallet getWalletByUser(User user) {
-        return walletRepository.findByUserId(user.getId())
+    // Keyset pagination: each page continues after the last row of the previous one and no count
+    // is run, so deep pages cost the same as the first.
+    @Override
+    @Transactional(readOnly = true)
+    public ApiResponse<TransactionCursorPage> getTransactionsByCursor(String cursor, int size) {
+        if (size < 1 || size > maxHistoryPageSize) {
+            throw new BadRequestException("Page size must be between 1 and " + maxHistoryPageSize);
+        }
+
+        WalletSummary wallet = walletRepository.findSummaryByUserId(UserService.getCurrentUserId())
+                .orElseThrow(() -> new ResourceNotFoundException("Wallet not found"));
+
+        Pageable pageable = PageRequest.of(0, size);
+        Slice<TransactionView> transactions;
+        if (cursor == null || cursor.isBlank()) {
+            transactions = transactionRepository.findFirstHistoryPage(wallet.id(), wallet.createdAt(), pageable);
+        } else {
+            TransactionCursor after = TransactionCursor.decode(cursor);
+            transactions = transactionRepository.findHistoryPageAfter(wallet.id(), wallet.createdAt(),
+                    after.createdAt(), after.id(), pageable);
+        }
+
+        String nextCursor = null;
+        if (transactions.hasNext()) {
+            TransactionView last = transactions.getContent().get(transactions.getNumberOfElements() - 1);
+            nextCursor = new TransactionCursor(last.createdAt(), last.id()).encode();
+        }
+
+        TransactionCursorPage page = TransactionCursorPage.builder()
+                .transactions(transactions.map(this::toTransactionResponse).getContent())
+                .nextCursor(nextCursor)
+                .hasNext(transactions.hasNext())
+                .build();
+
+        return ApiResponse.<TransactionCursorPage>builder()
+                .status("success")
+                .statusCode(200)
+                .message("Transactions retrieved successfully")
+                .data(page)
+                .build();
+    }
+
+    // The wallet is resolved while the request thread still holds the security context; the rows
+    // are written later from the async thread that drives the response body.
+    @Override
+    public StreamingResponseBody exportTransactions(TransactionExportFormat format, LocalDate from, LocalDate to,
+                                                    TransactionType type) {
+        if (from != null && to != null && to.isBefore(from)) {
+            throw new BadRequestException("'to' must not be before 'from'");
+        }
+
+        WalletSummary wallet = walletRepository.findSummaryByUserId(UserService.getCurrentUserId())
+                .orElseThrow(() -> new ResourceNotFoundException("Wallet not found"));
+
+        LocalDateTime start = from == null ? wallet.createdAt() : from.atStartOfDay();
+        LocalDateTime end = to == null ? LocalDateTime.now().plusDays(1) : to.plusDays(1).atStartOfDay();
+        Set<TransactionType> types = type == null ? EnumSet.allOf(TransactionType.class) : EnumSet.of(type);
+
+        return transactionExporter.export(wallet.id(), start, end, types, format);
+    }
+
+    @Override
+    @Transactional
+    public ApiResponse<BalanceResponse> configureBalanceStripes(BalanceStripesRequest request) {
+        Wallet wallet = walletRepository.findByUserIdForUpdate(UserService.getCurrentUserId())
+                .orElseThrow(() -> new ResourceNotFoundException("Wallet not found"));
+
+        long released = balanceStripes.resize(wallet.getId(), request.stripes());
+
+        wallet.setBalance(wallet.getBalance() + released);
+        wallet.setStripeCount(request.stripes());
+        walletRepository.save(wallet);
+
+        log.info("Wallet {} now uses {} balance stripes", wallet.getWalletNumber(), request.stripes());
+
+        return ApiResponse.<BalanceResponse>builder()
+                .status("success")
+                .statusCode(200)
+                .message("Balance stripes updated successfully")
+                .data(toBalanceResponse(wallet))
+                .build();
+    }
+
+    // Narrows a lookup by reference to the partitions around the time embedded in the reference.
+    // Older references (prefix plus decimal millis) are not decoded and search every partition.
+    private static CreatedAtRange createdAtRange(String reference) {
+        return ReferenceGenerator.timestampOf(reference)
+                .map(generatedAt -> LocalDateTime.ofInstant(generatedAt, ZoneId.systemDefault()))
+                .map(generatedAt -> new CreatedAtRange(generatedAt.minus(REFERENCE_LEAD), generatedAt.plus(REFERENCE_LAG)))
+                .orElseGet(() -> new CreatedAtRange(LEGACY_REFERENCE_EPOCH, LocalDateTime.now().plusDays(1)));
+    }
+
+    private record CreatedAtRange(LocalDateTime from, LocalDateTime to) {
+    }
+
+    private TransactionResponse toTransactionResponse(TransactionView transaction) {
+        return TransactionResponse.builder()
+                .type(transaction.type().name().toLowerCase())
+                .amount(transaction.amount())
+                .status(transaction.status().name().toLowerCase())
+                .reference(transaction.reference())
+                .createdAt(transaction.createdAt())
+                .build();
+    }
+
+    private BalanceResponse toBalanceResponse(Wallet wallet) {
+        return BalanceResponse.builder()
+                .balance(balanceEngine.balanceOf(wallet))
+                .walletNumber(wallet.getWalletNumber())
+                .build();
+    }
+
+    private Wallet getWalletByUserId(UUID userId) {
+        return walletRepository.findByUserId(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("Wallet not found"));
     }
 }
\ No newline at end of file
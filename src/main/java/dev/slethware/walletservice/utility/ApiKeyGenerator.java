@@ -6,11 +6,32 @@ import java.util.Base64;
 public class ApiKeyGenerator {
     private static final SecureRandom random = new SecureRandom();
     private static final int KEY_LENGTH = 32;
+    private static final int PREFIX_LENGTH = 9;
+    private static final int ENCODED_PREFIX_LENGTH = 12;
+    private static final char PREFIX_SEPARATOR = '.';
 
-    public static String generate() {
+    public static final String KEY_SCHEME = "sk_live_";
+
+    public static String generatePrefix() {
+        byte[] bytes = new byte[PREFIX_LENGTH];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    // Format: sk_live_<prefix>.<secret>. The prefix is public and maps to a single indexed row.
+    public static String generate(String prefix) {
         byte[] bytes = new byte[KEY_LENGTH];
         random.nextBytes(bytes);
         String randomPart = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
-        return "sk_live_" + randomPart;
+        return KEY_SCHEME + prefix + PREFIX_SEPARATOR + randomPart;
+    }
+
+    // Returns null for keys issued before the prefix was embedded in the key.
+    public static String extractPrefix(String apiKey) {
+        int separatorIndex = KEY_SCHEME.length() + ENCODED_PREFIX_LENGTH;
+        if (apiKey.length() <= separatorIndex + 1 || apiKey.charAt(separatorIndex) != PREFIX_SEPARATOR) {
+            return null;
+        }
+        return apiKey.substring(KEY_SCHEME.length(), separatorIndex);
     }
-}
\ No newline at end of file
+}
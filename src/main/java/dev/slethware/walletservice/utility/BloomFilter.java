@@ -0,0 +1,58 @@
+package dev.slethware.walletservice.utility;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Fixed-size Bloom filter over strings. Lookups do not allocate; false positives must be confirmed by the caller.
+public class BloomFilter {
+    private final AtomicLongArray bits;
+    private final int bitCount;
+    private final int hashCount;
+
+    public BloomFilter(int expectedInsertions, double falsePositiveRate) {
+        int insertions = Math.max(1, expectedInsertions);
+        long optimalBits = (long) Math.ceil(-insertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.min(Integer.MAX_VALUE / 64, Math.max(1, (optimalBits + 63) / 64));
+
+        this.bits = new AtomicLongArray(words);
+        this.bitCount = words * 64;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / insertions * Math.log(2)));
+    }
+
+    public void put(String value) {
+        int primaryHash = value.hashCode();
+        int secondaryHash = secondaryHash(value);
+
+        for (int i = 0; i < hashCount; i++) {
+            int bitIndex = bitIndex(primaryHash, secondaryHash, i);
+            long mask = 1L << bitIndex;
+            bits.accumulateAndGet(bitIndex >>> 6, mask, (current, bit) -> current | bit);
+        }
+    }
+
+    public boolean mightContain(String value) {
+        int primaryHash = value.hashCode();
+        int secondaryHash = secondaryHash(value);
+
+        for (int i = 0; i < hashCount; i++) {
+            int bitIndex = bitIndex(primaryHash, secondaryHash, i);
+            if ((bits.get(bitIndex >>> 6) & (1L << bitIndex)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int bitIndex(int primaryHash, int secondaryHash, int i) {
+        return ((primaryHash + i * secondaryHash) & Integer.MAX_VALUE) % bitCount;
+    }
+
+    // FNV-1a over the UTF-16 code units, independent of String.hashCode.
+    private static int secondaryHash(String value) {
+        int hash = 0x811c9dc5;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x01000193;
+        }
+        return hash | 1;
+    }
+}
@@ -0,0 +1,67 @@
+package dev.slethware.walletservice.utility;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+// Bounded multi-producer, single-consumer ring. Producers claim a sequence with one atomic increment
+// and publish their slot by stamping it with that sequence; the consumer reads slots strictly in
+// sequence order, so commands are seen in the order they were claimed.
+public class MpscRingBuffer<E> {
+
+    private final Object[] slots;
+    private final AtomicLongArray published;
+    private final int mask;
+    private final AtomicLong claimed = new AtomicLong();
+    private volatile long consumed;
+
+    public MpscRingBuffer(int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ring capacity must be a power of two");
+        }
+        this.slots = new Object[capacity];
+        this.published = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+        for (int i = 0; i < capacity; i++) {
+            published.set(i, -1);
+        }
+    }
+
+    // Blocks while the ring is full.
+    public void put(E element) {
+        long sequence = claimed.getAndIncrement();
+        while (sequence - consumed >= slots.length) {
+            LockSupport.parkNanos(1_000);
+        }
+
+        int index = (int) (sequence & mask);
+        slots[index] = element;
+        published.set(index, sequence);
+    }
+
+    // Consumer only. Moves up to max published elements into the target list, in sequence order.
+    @SuppressWarnings("unchecked")
+    public int drainTo(List<E> target, int max) {
+        long next = consumed;
+        int drained = 0;
+
+        while (drained < max) {
+            int index = (int) (next & mask);
+            if (published.get(index) != next) {
+                break;
+            }
+            target.add((E) slots[index]);
+            slots[index] = null;
+            next++;
+            drained++;
+        }
+
+        consumed = next;
+        return drained;
+    }
+
+    public boolean isEmpty() {
+        return claimed.get() == consumed;
+    }
+}
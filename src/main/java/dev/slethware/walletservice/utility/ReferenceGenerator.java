@@ -0,0 +1,101 @@
+package dev.slethware.walletservice.utility;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Snowflake-style ids: 41 bits of milliseconds since EPOCH, 10 bits of node id and a 12 bit sequence.
+// References are the id in fixed-width Crockford base32, so they sort in generation order.
+@Slf4j
+@Component
+public class ReferenceGenerator {
+
+    private static final long EPOCH = 1735689600000L; // 2025-01-01T00:00:00Z
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int ENCODED_LENGTH = 13;
+    private static final long MAX_CLOCK_LEAD = 86_400_000L;
+
+    private final long nodeBits;
+
+    // Timestamp and sequence packed as (millis << SEQUENCE_BITS) | sequence. Incrementing it carries a
+    // full sequence into the next millisecond, so bursts borrow ahead of the clock instead of spinning,
+    // and a clock that steps backwards keeps counting from the last value, which keeps ids monotonic.
+    private final AtomicLong state = new AtomicLong();
+
+    public ReferenceGenerator(@Value("${reference.node-id:-1}") int nodeId,
+                              @Value("${reference.single-instance:false}") boolean singleInstance) {
+        if (nodeId < 0) {
+            // Two instances sharing a node id hand out the same references, so a missing id is only
+            // acceptable when this is known to be the only instance
+            if (!singleInstance) {
+                throw new IllegalStateException("reference.node-id must be set (0-" + MAX_NODE_ID
+                        + ") unless reference.single-instance is true");
+            }
+            nodeId = 0;
+            log.info("reference.node-id is not set, using node id 0 for a single instance");
+        } else if (nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("reference.node-id must be between 0 and " + MAX_NODE_ID);
+        }
+        this.nodeBits = (long) nodeId << SEQUENCE_BITS;
+    }
+
+    public String next(String prefix) {
+        return prefix + "_" + encode(nextId());
+    }
+
+    public long nextId() {
+        long now = System.currentTimeMillis() - EPOCH;
+        long current;
+        long next;
+        do {
+            current = state.get();
+            next = Math.max(current + 1, now << SEQUENCE_BITS);
+        } while (!state.compareAndSet(current, next));
+
+        long timestamp = next >>> SEQUENCE_BITS;
+        return (timestamp << (NODE_BITS + SEQUENCE_BITS)) | nodeBits | (next & SEQUENCE_MASK);
+    }
+
+    // Generation time of a reference produced by next(), or empty for references in any other format.
+    // Older references were the creation time in decimal millis, also 13 characters, so all-digit
+    // payloads and anything that decodes outside [EPOCH, now + a day] are not treated as ours.
+    public static Optional<Instant> timestampOf(String reference) {
+        String[] parts = reference.split("_");
+        if (parts.length < 2 || parts[1].length() != ENCODED_LENGTH || parts[1].chars().allMatch(Character::isDigit)) {
+            return Optional.empty();
+        }
+
+        long id = 0;
+        for (char c : parts[1].toCharArray()) {
+            int digit = Arrays.binarySearch(ALPHABET, c);
+            if (digit < 0) {
+                return Optional.empty();
+            }
+            id = (id << 5) | digit;
+        }
+
+        long generatedAt = (id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH;
+        if (id < 0 || generatedAt > System.currentTimeMillis() + MAX_CLOCK_LEAD) {
+            return Optional.empty();
+        }
+        return Optional.of(Instant.ofEpochMilli(generatedAt));
+    }
+
+    private static String encode(long id) {
+        char[] chars = new char[ENCODED_LENGTH];
+        for (int i = ENCODED_LENGTH - 1; i >= 0; i--) {
+            chars[i] = ALPHABET[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,34 @@
+package dev.slethware.walletservice.utility;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Token bucket implemented as a generic cell rate algorithm: the whole state is one theoretical
+// arrival time, so taking a token is a single CAS and never blocks.
+public class TokenBucket {
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final AtomicLong theoreticalArrivalTime;
+
+    public TokenBucket(long capacity, double refillPerSecond) {
+        this.emissionIntervalNanos = (long) (1_000_000_000L / refillPerSecond);
+        this.burstToleranceNanos = emissionIntervalNanos * (Math.max(1, capacity) - 1);
+        this.theoreticalArrivalTime = new AtomicLong(System.nanoTime());
+    }
+
+    // Returns 0 when a token was taken, otherwise the nanoseconds until one becomes available.
+    public long tryConsume() {
+        while (true) {
+            long now = System.nanoTime();
+            long arrivalTime = theoreticalArrivalTime.get();
+            long base = arrivalTime - now > 0 ? arrivalTime : now;
+            long waitNanos = base - burstToleranceNanos - now;
+
+            if (waitNanos > 0) {
+                return waitNanos;
+            }
+            if (theoreticalArrivalTime.compareAndSet(arrivalTime, base + emissionIntervalNanos)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package dev.slethware.walletservice.utility;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+// RFC 9562 version 7 UUIDs: a 48-bit Unix millisecond timestamp followed by random bits, so ids
+// created later sort later and new rows land on the right-hand edge of a B-tree index. The 12
+// rand_a bits carry a counter within the millisecond, which keeps ids from one process strictly
+// increasing; a counter that overflows borrows the next millisecond.
+public final class UuidV7 {
+
+    private static final SecureRandom random = new SecureRandom();
+
+    // Unix millis << 12 | sub-millisecond counter of the last id handed out
+    private static final AtomicLong lastStamp = new AtomicLong();
+
+    private UuidV7() {
+    }
+
+    public static UUID next() {
+        long stamp = nextStamp();
+        long millis = stamp >>> 12;
+        long counter = stamp & 0xFFF;
+
+        long mostSignificant = (millis << 16) | 0x7000L | counter;
+        long leastSignificant = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(mostSignificant, leastSignificant);
+    }
+
+    public static long timestampMillis(UUID uuid) {
+        return uuid.getMostSignificantBits() >>> 16;
+    }
+
+    private static long nextStamp() {
+        long now = System.currentTimeMillis() << 12;
+        while (true) {
+            long last = lastStamp.get();
+            long next = Math.max(now, last + 1);
+            if (lastStamp.compareAndSet(last, next)) {
+                return next;
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+-- One-off conversion of the transactions table to monthly range partitions on created_at.
+-- Run once against the primary with the service stopped: psql "$DB_URL" -f partition-transactions.sql
+-- Once the table is partitioned, TransactionPartitionManager creates future months on its own.
+
+BEGIN;
+
+LOCK TABLE transactions IN ACCESS EXCLUSIVE MODE;
+
+ALTER TABLE transactions RENAME TO transactions_unpartitioned;
+ALTER TABLE transactions_unpartitioned RENAME CONSTRAINT transactions_pkey TO transactions_unpartitioned_pkey;
+
+CREATE TABLE transactions (LIKE transactions_unpartitioned INCLUDING DEFAULTS INCLUDING CONSTRAINTS)
+    PARTITION BY RANGE (created_at);
+
+-- Primary and unique keys of a partitioned table must include the partition key
+ALTER TABLE transactions ADD PRIMARY KEY (id, created_at);
+ALTER TABLE transactions ADD CONSTRAINT fk_transactions_wallet FOREIGN KEY (wallet_id) REFERENCES wallets (id);
+
+-- Partitions from the oldest row's month through three months ahead, named like the manager names them
+DO $$
+DECLARE
+    month date := date_trunc('month', COALESCE((SELECT min(created_at) FROM transactions_unpartitioned), now()));
+    last  date := date_trunc('month', now() + interval '3 months');
+BEGIN
+    WHILE month <= last LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF transactions FOR VALUES FROM (%L) TO (%L)',
+                       'transactions_' || to_char(month, '"y"YYYY"m"MM'), month, month + interval '1 month');
+        month := month + interval '1 month';
+    END LOOP;
+END $$;
+
+-- A unique index on the partitioned table would have to include created_at, which would let two
+-- rows share a reference. Every reference is instead claimed in this unpartitioned table by the
+-- insert that writes it, so a duplicate fails the insert as it did before. That costs one extra
+-- index write per insert; a month's rows are deleted when its partition is detached for retention.
+CREATE TABLE IF NOT EXISTS transaction_references (
+    reference  varchar(255) PRIMARY KEY,
+    created_at timestamp(6) NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_transaction_references_created_at ON transaction_references (created_at);
+
+CREATE OR REPLACE FUNCTION claim_transaction_reference() RETURNS trigger AS $$
+BEGIN
+    INSERT INTO transaction_references (reference, created_at) VALUES (NEW.reference, NEW.created_at);
+    RETURN NEW;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER transactions_claim_reference BEFORE INSERT ON transactions
+    FOR EACH ROW EXECUTE FUNCTION claim_transaction_reference();
+
+-- Goes through the trigger, so existing references are claimed as they are copied
+INSERT INTO transactions SELECT * FROM transactions_unpartitioned;
+
+DROP TABLE transactions_unpartitioned;
+
+-- Created on the parent after the copy, so every partition gets its own index built in one pass
+CREATE INDEX idx_wallet_id ON transactions (wallet_id);
+CREATE INDEX idx_reference ON transactions (reference);
+CREATE INDEX idx_status ON transactions (status);
+CREATE INDEX idx_created_at ON transactions (created_at);
+CREATE INDEX idx_wallet_created_at_id ON transactions (wallet_id, created_at DESC, id);
+
+COMMIT;
+
+ANALYZE transactions;
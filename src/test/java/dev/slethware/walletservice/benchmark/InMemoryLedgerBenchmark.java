@@ -0,0 +1,187 @@
+package dev.slethware.walletservice.benchmark;
+
+import dev.slethware.walletservice.service.memory.LedgerJournal;
+import dev.slethware.walletservice.service.memory.MemoryLedger;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Transfers between random wallets from eight threads: the single-writer in-memory ledger
+// (journal forced per batch) against a conditional UPDATE per wallet row in one transaction.
+// The row-locking case needs a Postgres database in DB_URL, DB_USERNAME and DB_PASSWORD and
+// works on its own bench_wallets table; main() leaves it out when DB_URL is not set.
+// Run main() from the IDE, or: java -cp <test classpath> org.openjdk.jmh.Main InMemoryLedgerBenchmark
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class InMemoryLedgerBenchmark {
+
+    private static final int WALLETS = 1024;
+    private static final long OPENING_BALANCE = 1_000_000_000L;
+
+    @State(Scope.Benchmark)
+    public static class Memory {
+
+        @Param({"true", "false"})
+        boolean journalSync;
+
+        UUID[] walletIds;
+        Path journalPath;
+        LedgerJournal journal;
+        MemoryLedger ledger;
+
+        @Setup
+        public void setup() throws Exception {
+            walletIds = walletIds();
+            Map<UUID, Long> balances = new HashMap<>();
+            for (UUID walletId : walletIds) {
+                balances.put(walletId, OPENING_BALANCE);
+            }
+
+            journalPath = Files.createTempFile("wallet-journal", ".bin");
+            journal = new LedgerJournal(journalPath, 64 * 1024 * 1024, journalSync);
+            ledger = new MemoryLedger(journal, balances, Map.of(), 0, snapshot -> { }, 65536);
+            ledger.start();
+        }
+
+        @TearDown
+        public void tearDown() throws Exception {
+            ledger.stop();
+            journal.close();
+            Files.deleteIfExists(journalPath);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Database {
+
+        UUID[] walletIds;
+
+        @Setup
+        public void setup() throws Exception {
+            walletIds = walletIds();
+            try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+                statement.execute("DROP TABLE IF EXISTS bench_wallets");
+                statement.execute("CREATE TABLE bench_wallets (id uuid PRIMARY KEY, balance bigint NOT NULL)");
+                try (PreparedStatement insert = connection.prepareStatement("INSERT INTO bench_wallets VALUES (?, ?)")) {
+                    for (UUID walletId : walletIds) {
+                        insert.setObject(1, walletId);
+                        insert.setLong(2, OPENING_BALANCE);
+                        insert.addBatch();
+                    }
+                    insert.executeBatch();
+                }
+            }
+        }
+
+        @TearDown
+        public void tearDown() throws Exception {
+            try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+                statement.execute("DROP TABLE bench_wallets");
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class DatabaseConnection {
+
+        Connection connection;
+        PreparedStatement debit;
+        PreparedStatement credit;
+
+        @Setup
+        public void setup() throws Exception {
+            connection = connect();
+            connection.setAutoCommit(false);
+            debit = connection.prepareStatement("UPDATE bench_wallets SET balance = balance - ? WHERE id = ? AND balance >= ?");
+            credit = connection.prepareStatement("UPDATE bench_wallets SET balance = balance + ? WHERE id = ?");
+        }
+
+        @TearDown
+        public void tearDown() throws Exception {
+            connection.close();
+        }
+    }
+
+    @Benchmark
+    public boolean memoryTransfer(Memory memory) throws Exception {
+        UUID[] pair = pair(memory.walletIds);
+        // As the engine moves funds: the sender's debit, then the recipient's credit once settled
+        return memory.ledger.debit(pair[0], 100).get() && memory.ledger.credit(pair[1], 100).get();
+    }
+
+    // Rows are updated in id order, as the balance engines do, so the threads cannot deadlock
+    @Benchmark
+    public boolean databaseTransfer(Database database, DatabaseConnection db) throws Exception {
+        UUID[] pair = pair(database.walletIds);
+        boolean senderFirst = pair[0].toString().compareTo(pair[1].toString()) < 0;
+
+        if (!senderFirst) {
+            credit(db, pair[1]);
+        }
+        db.debit.setLong(1, 100);
+        db.debit.setObject(2, pair[0]);
+        db.debit.setLong(3, 100);
+        boolean applied = db.debit.executeUpdate() == 1;
+        if (applied && senderFirst) {
+            credit(db, pair[1]);
+        }
+
+        if (applied) {
+            db.connection.commit();
+        } else {
+            db.connection.rollback();
+        }
+        return applied;
+    }
+
+    private static void credit(DatabaseConnection db, UUID walletId) throws Exception {
+        db.credit.setLong(1, 100);
+        db.credit.setObject(2, walletId);
+        db.credit.executeUpdate();
+    }
+
+    private static UUID[] pair(UUID[] walletIds) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int sender = random.nextInt(walletIds.length);
+        int recipient = (sender + 1 + random.nextInt(walletIds.length - 1)) % walletIds.length;
+        return new UUID[]{walletIds[sender], walletIds[recipient]};
+    }
+
+    private static UUID[] walletIds() {
+        UUID[] walletIds = new UUID[WALLETS];
+        for (int i = 0; i < WALLETS; i++) {
+            walletIds[i] = UUID.randomUUID();
+        }
+        return walletIds;
+    }
+
+    private static Connection connect() throws Exception {
+        return DriverManager.getConnection(System.getenv("DB_URL"), System.getenv("DB_USERNAME"), System.getenv("DB_PASSWORD"));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        String include = System.getenv("DB_URL") == null
+                ? InMemoryLedgerBenchmark.class.getSimpleName() + ".memory"
+                : InMemoryLedgerBenchmark.class.getSimpleName();
+        new Runner(new OptionsBuilder()
+                .include(include)
+                .build()).run();
+    }
+}
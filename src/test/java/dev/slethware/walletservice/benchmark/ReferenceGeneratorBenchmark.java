@@ -0,0 +1,49 @@
+package dev.slethware.walletservice.benchmark;
+
+import dev.slethware.walletservice.utility.ReferenceGenerator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+// Throughput of reference generation, single-threaded and with every core contending on one generator.
+// Run main() from the IDE, or: java -cp <test classpath> org.openjdk.jmh.Main ReferenceGeneratorBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReferenceGeneratorBenchmark {
+
+    private ReferenceGenerator generator;
+
+    @Setup
+    public void setup() {
+        generator = new ReferenceGenerator(1, false);
+    }
+
+    @Benchmark
+    public long nextId() {
+        return generator.nextId();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public long nextIdContended() {
+        return generator.nextId();
+    }
+
+    @Benchmark
+    public String nextReference() {
+        return generator.next("TRF");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ReferenceGeneratorBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
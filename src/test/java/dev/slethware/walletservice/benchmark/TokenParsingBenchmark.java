@@ -0,0 +1,74 @@
+package dev.slethware.walletservice.benchmark;
+
+import dev.slethware.walletservice.security.JwtKeyRing;
+import dev.slethware.walletservice.service.token.TokenServiceImpl;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+// Per-request cost of authenticating a bearer token.
+// Run main() from the IDE, or: java -cp <test classpath> org.openjdk.jmh.Main TokenParsingBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenParsingBenchmark {
+
+    private SecretKey key;
+    private JwtParser sharedParser;
+    private TokenServiceImpl tokenService;
+    private String token;
+
+    @Setup
+    public void setup() {
+        key = Keys.hmacShaKeyFor("benchmark-secret-key-with-at-least-32-bytes".getBytes(StandardCharsets.UTF_8));
+        sharedParser = Jwts.parser().verifyWith(key).build();
+        tokenService = new TokenServiceImpl(JwtKeyRing.symmetric(key), new SimpleMeterRegistry(), 14400000L, 10000);
+
+        Date now = new Date();
+        token = Jwts.builder()
+                .claim("userId", "6f1c2a9e-0f4b-4a63-9d6e-1b2f3c4d5e6f")
+                .claim("scope", "PERMISSION_DEPOSIT PERMISSION_TRANSFER PERMISSION_READ PERMISSION_WITHDRAW")
+                .subject("user@example.com")
+                .issuedAt(now)
+                .expiration(new Date(now.getTime() + 14400000L))
+                .signWith(key, Jwts.SIG.HS256)
+                .compact();
+    }
+
+    // Previous filter behaviour: a fresh parser for extractEmail and again for validateAccessToken.
+    @Benchmark
+    public Claims newParserTwicePerRequest() {
+        Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload();
+        return Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload();
+    }
+
+    @Benchmark
+    public Claims sharedParserOncePerRequest() {
+        return sharedParser.parseSignedClaims(token).getPayload();
+    }
+
+    @Benchmark
+    public Claims cachedClaims() {
+        return tokenService.parseAccessToken(token);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(TokenParsingBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
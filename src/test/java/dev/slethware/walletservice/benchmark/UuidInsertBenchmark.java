@@ -0,0 +1,103 @@
+package dev.slethware.walletservice.benchmark;
+
+import dev.slethware.walletservice.utility.UuidV7;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Batched inserts into a table already seeded with rows, keyed by random v4 or time-ordered v7
+// UUIDs, with the driver rewriting each batch into one multi-row INSERT as the application does.
+// Needs a Postgres database in DB_URL, DB_USERNAME and DB_PASSWORD and works on its own
+// bench_transactions table. Grow seedRows to see the v4 index fall out of cache.
+// Run main() from the IDE, or: java -cp <test classpath> org.openjdk.jmh.Main UuidInsertBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class UuidInsertBenchmark {
+
+    private static final int BATCH_SIZE = 50;
+
+    @Param({"v4", "v7"})
+    String idType;
+
+    @Param({"1000000"})
+    int seedRows;
+
+    private Connection connection;
+    private PreparedStatement insert;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        connection = DriverManager.getConnection(
+                System.getenv("DB_URL") + (System.getenv("DB_URL").contains("?") ? "&" : "?") + "reWriteBatchedInserts=true",
+                System.getenv("DB_USERNAME"), System.getenv("DB_PASSWORD"));
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS bench_transactions");
+            statement.execute("""
+                    CREATE TABLE bench_transactions (
+                        id uuid PRIMARY KEY,
+                        wallet_id uuid NOT NULL,
+                        amount bigint NOT NULL,
+                        reference varchar(64) NOT NULL,
+                        created_at timestamp NOT NULL DEFAULT now()
+                    )""");
+        }
+
+        insert = connection.prepareStatement(
+                "INSERT INTO bench_transactions (id, wallet_id, amount, reference) VALUES (?, ?, ?, ?)");
+        connection.setAutoCommit(false);
+        for (int seeded = 0; seeded < seedRows; seeded += BATCH_SIZE) {
+            insertBatch();
+        }
+        connection.setAutoCommit(true);
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("VACUUM ANALYZE bench_transactions");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE bench_transactions");
+        }
+        connection.close();
+    }
+
+    // One committed batch, like the rows a batch transfer writes; score is batches per second
+    @Benchmark
+    public int[] insertBatch() throws Exception {
+        UUID walletId = UUID.randomUUID();
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            UUID id = "v7".equals(idType) ? UuidV7.next() : UUID.randomUUID();
+            insert.setObject(1, id);
+            insert.setObject(2, walletId);
+            insert.setLong(3, 100);
+            insert.setString(4, id.toString());
+            insert.addBatch();
+        }
+        return insert.executeBatch();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        if (System.getenv("DB_URL") == null) {
+            System.err.println("UuidInsertBenchmark needs DB_URL, DB_USERNAME and DB_PASSWORD");
+            return;
+        }
+        new Runner(new OptionsBuilder()
+                .include(UuidInsertBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
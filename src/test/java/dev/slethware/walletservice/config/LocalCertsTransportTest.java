@@ -0,0 +1,84 @@
+package dev.slethware.walletservice.config;
+
+import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken;
+import com.google.api.client.googleapis.auth.oauth2.GoogleIdTokenVerifier;
+import com.google.api.client.googleapis.auth.oauth2.GooglePublicKeysManager;
+import com.google.api.client.json.gson.GsonFactory;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyFactory;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Verifies ID tokens against the test certificate in google/certs.json, whose private key is
+// google/signing-key.pem, without any network access.
+class LocalCertsTransportTest {
+
+    private static final String CLIENT_ID = "walletservice-test.apps.googleusercontent.com";
+    private static final String KEY_ID = "walletservice-test";
+
+    private GoogleIdTokenVerifier verifier;
+    private PrivateKey signingKey;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        LocalCertsTransport transport = new LocalCertsTransport(new ClassPathResource("google/certs.json"), Duration.ofHours(1));
+        GooglePublicKeysManager publicKeysManager =
+                new GooglePublicKeysManager.Builder(transport, GsonFactory.getDefaultInstance()).build();
+        verifier = new GoogleIdTokenVerifier.Builder(publicKeysManager)
+                .setAudience(List.of(CLIENT_ID))
+                .build();
+
+        String pem = new ClassPathResource("google/signing-key.pem").getContentAsString(StandardCharsets.UTF_8)
+                .replaceAll("-----[A-Z ]+-----", "")
+                .replaceAll("\\s", "");
+        signingKey = KeyFactory.getInstance("RSA").generatePrivate(new PKCS8EncodedKeySpec(Base64.getDecoder().decode(pem)));
+    }
+
+    @Test
+    void verifiesATokenSignedForTheLocalCertificate() throws Exception {
+        GoogleIdToken idToken = verifier.verify(token(signingKey, CLIENT_ID));
+
+        assertThat(idToken).isNotNull();
+        assertThat(idToken.getPayload().getEmail()).isEqualTo("user@example.com");
+    }
+
+    @Test
+    void rejectsATokenForAnotherAudience() throws Exception {
+        assertThat(verifier.verify(token(signingKey, "someone-else.apps.googleusercontent.com"))).isNull();
+    }
+
+    @Test
+    void rejectsATokenSignedWithAnotherKey() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+
+        assertThat(verifier.verify(token(generator.generateKeyPair().getPrivate(), CLIENT_ID))).isNull();
+    }
+
+    private static String token(PrivateKey key, String audience) {
+        Instant now = Instant.now();
+        return Jwts.builder()
+                .header().keyId(KEY_ID).and()
+                .issuer("https://accounts.google.com")
+                .audience().add(audience).and()
+                .subject("109876543210")
+                .claim("email", "user@example.com")
+                .issuedAt(Date.from(now))
+                .expiration(Date.from(now.plusSeconds(600)))
+                .signWith(key, Jwts.SIG.RS256)
+                .compact();
+    }
+}
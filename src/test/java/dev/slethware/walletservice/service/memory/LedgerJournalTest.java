@@ -0,0 +1,123 @@
+package dev.slethware.walletservice.service.memory;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LedgerJournalTest {
+
+    private static final int RECORD_SIZE = 128;
+    private static final UUID WALLET = UUID.randomUUID();
+
+    @TempDir
+    Path directory;
+
+    record Entry(long sequence, int type, UUID from, UUID to, long amount, String reference) {
+    }
+
+    @Test
+    void replaysRecordsAfterTheGivenSequence() throws IOException {
+        Path path = directory.resolve("journal.bin");
+        try (LedgerJournal journal = open(path, 16)) {
+            journal.replay(0, (sequence, type, from, to, amount, reference) -> { });
+            for (long sequence = 1; sequence <= 5; sequence++) {
+                journal.append(sequence, LedgerJournal.CREDIT, null, WALLET, sequence * 100, null);
+            }
+            journal.append(6, LedgerJournal.HOLD, WALLET, null, 50, "WDR_0D8ZQ3K7M2B41");
+        }
+
+        List<Entry> entries = new ArrayList<>();
+        try (LedgerJournal journal = open(path, 16)) {
+            assertThat(journal.replay(2, collect(entries))).isEqualTo(6);
+        }
+
+        assertThat(entries).extracting(Entry::sequence).containsExactly(3L, 4L, 5L, 6L);
+        assertThat(entries.get(0)).isEqualTo(new Entry(3, LedgerJournal.CREDIT, null, WALLET, 300, null));
+        assertThat(entries.get(3)).isEqualTo(new Entry(6, LedgerJournal.HOLD, WALLET, null, 50, "WDR_0D8ZQ3K7M2B41"));
+    }
+
+    // After a rewind the records from the previous pass are still in the file past the write
+    // position; they are older than the ones before them, which is where replay stops.
+    @Test
+    void stopsAtRecordsLeftOverFromBeforeARewind() throws IOException {
+        Path path = directory.resolve("journal.bin");
+        try (LedgerJournal journal = open(path, 4)) {
+            journal.replay(0, (sequence, type, from, to, amount, reference) -> { });
+            for (long sequence = 1; sequence <= 4; sequence++) {
+                journal.append(sequence, LedgerJournal.DEBIT, WALLET, null, 1, null);
+            }
+            assertThat(journal.hasRoom()).isFalse();
+
+            journal.rewind();
+            journal.append(5, LedgerJournal.CREDIT, null, WALLET, 10, null);
+            journal.append(6, LedgerJournal.CREDIT, null, WALLET, 20, null);
+        }
+
+        List<Entry> entries = new ArrayList<>();
+        try (LedgerJournal journal = open(path, 4)) {
+            assertThat(journal.replay(0, collect(entries))).isEqualTo(6);
+            assertThat(journal.hasRoom()).isTrue();
+        }
+
+        assertThat(entries).extracting(Entry::sequence).containsExactly(5L, 6L);
+    }
+
+    @Test
+    void stopsAtATornRecordAndOverwritesIt() throws IOException {
+        Path path = directory.resolve("journal.bin");
+        try (LedgerJournal journal = open(path, 16)) {
+            journal.replay(0, (sequence, type, from, to, amount, reference) -> { });
+            for (long sequence = 1; sequence <= 3; sequence++) {
+                journal.append(sequence, LedgerJournal.CREDIT, null, WALLET, 7, null);
+            }
+        }
+
+        // Flip a byte of the third record's amount, as a write cut short by a crash would leave it
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer amount = ByteBuffer.allocate(1);
+            channel.read(amount, 2 * RECORD_SIZE + 44);
+            amount.put(0, (byte) (amount.get(0) ^ 0xff)).rewind();
+            channel.write(amount, 2 * RECORD_SIZE + 44);
+        }
+
+        List<Entry> entries = new ArrayList<>();
+        try (LedgerJournal journal = open(path, 16)) {
+            assertThat(journal.replay(0, collect(entries))).isEqualTo(2);
+            journal.append(3, LedgerJournal.DEBIT, WALLET, null, 9, null);
+        }
+        assertThat(entries).extracting(Entry::sequence).containsExactly(1L, 2L);
+
+        entries.clear();
+        try (LedgerJournal journal = open(path, 16)) {
+            assertThat(journal.replay(0, collect(entries))).isEqualTo(3);
+        }
+        assertThat(entries.get(2)).isEqualTo(new Entry(3, LedgerJournal.DEBIT, WALLET, null, 9, null));
+    }
+
+    @Test
+    void replaysNothingFromAnEmptyFile() throws IOException {
+        try (LedgerJournal journal = open(directory.resolve("journal.bin"), 16)) {
+            List<Entry> entries = new ArrayList<>();
+            assertThat(journal.replay(0, collect(entries))).isZero();
+            assertThat(entries).isEmpty();
+        }
+    }
+
+    private static LedgerJournal open(Path path, int records) throws IOException {
+        return new LedgerJournal(path, records * RECORD_SIZE, false);
+    }
+
+    private static LedgerJournal.RecordHandler collect(List<Entry> entries) {
+        return (sequence, type, from, to, amount, reference) -> entries.add(new Entry(sequence, type, from, to, amount, reference));
+    }
+}
@@ -0,0 +1,225 @@
+package dev.slethware.walletservice.service.memory;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MemoryLedgerTest {
+
+    private static final UUID ALICE = UUID.randomUUID();
+    private static final UUID BOB = UUID.randomUUID();
+
+    @TempDir
+    Path directory;
+
+    private final List<LedgerJournal> journals = new ArrayList<>();
+    private final List<MemoryLedger.Snapshot> snapshots = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    void closeJournals() throws IOException {
+        for (LedgerJournal journal : journals) {
+            journal.close();
+        }
+    }
+
+    @Test
+    void refusesADebitTheBalanceCannotCover() throws Exception {
+        MemoryLedger ledger = start(Map.of(ALICE, 100L), 64);
+
+        assertThat(ledger.debit(ALICE, 101).get()).isFalse();
+        assertThat(ledger.balance(ALICE)).isEqualTo(100);
+        assertThat(ledger.debit(ALICE, 100).get()).isTrue();
+        assertThat(ledger.balance(ALICE)).isZero();
+        assertThat(ledger.debit(BOB, 1).get()).isFalse();
+
+        ledger.stop();
+    }
+
+    @Test
+    void checksEachHoldAgainstWhatIsLeft() throws Exception {
+        MemoryLedger ledger = start(Map.of(ALICE, 100L), 64);
+
+        UUID[] recipients = {BOB, BOB, BOB};
+        assertThat(ledger.holdEach(ALICE, recipients, new long[]{60, 50, 40}, new String[]{"BTR_1_0", "BTR_1_1", "BTR_1_2"}).get())
+                .containsExactly(true, false, true);
+        assertThat(ledger.balance(ALICE)).isZero();
+        assertThat(ledger.balance(BOB)).isZero();
+
+        ledger.stop();
+    }
+
+    // Held funds have left the sender but reach nobody until the hold is settled; a release hands
+    // them back, and a reference can only be settled or released once.
+    @Test
+    void settlesOrReleasesHoldsByReference() throws Exception {
+        MemoryLedger ledger = start(Map.of(ALICE, 100L, BOB, 0L), 64);
+
+        assertThat(ledger.hold(ALICE, BOB, 60, "TRF_1").get()).isTrue();
+        assertThat(ledger.hold(ALICE, BOB, 60, "TRF_2").get()).isFalse();
+        assertThat(ledger.hold(ALICE, BOB, 30, "TRF_2").get()).isTrue();
+        assertThat(ledger.hold(null, BOB, 5, "DEP_1").get()).isTrue();
+        assertThat(ledger.balance(ALICE)).isEqualTo(10);
+        assertThat(ledger.balance(BOB)).isZero();
+
+        assertThat(ledger.settle("TRF_1").get()).isTrue();
+        assertThat(ledger.release("TRF_2").get()).isTrue();
+        assertThat(ledger.settle("DEP_1").get()).isTrue();
+        assertThat(ledger.settle("TRF_1").get()).isFalse();
+        assertThat(ledger.release("TRF_2").get()).isFalse();
+
+        assertThat(ledger.balance(ALICE)).isEqualTo(40);
+        assertThat(ledger.balance(BOB)).isEqualTo(65);
+        ledger.stop();
+    }
+
+    // A hold journaled after the persisted snapshot comes back from the journal, and one that was
+    // open when the snapshot was taken comes back from the snapshot.
+    @Test
+    void rebuildsOpenHoldsOnRestart() throws Exception {
+        MemoryLedger ledger = start(Map.of(ALICE, 100L, BOB, 0L), 64);
+        ledger.hold(ALICE, BOB, 40, "TRF_1").get();
+        MemoryLedger.Snapshot persisted = ledger.snapshot().get();
+        ledger.hold(ALICE, BOB, 20, "TRF_2").get();
+        ledger.hold(null, BOB, 5, "DEP_1").get();
+        ledger.settle("DEP_1").get();
+        ledger.stop();
+
+        assertThat(persisted.holds()).containsOnlyKeys("TRF_1");
+        MemoryLedger restarted = start(Map.of(ALICE, 60L, BOB, 0L), persisted.holds(), 64, persisted.sequence());
+        assertThat(restarted.openHolds()).isEqualTo(Map.of(
+                "TRF_1", new MemoryLedger.Hold(ALICE, BOB, 40),
+                "TRF_2", new MemoryLedger.Hold(ALICE, BOB, 20)));
+        assertThat(restarted.balance(ALICE)).isEqualTo(40);
+        assertThat(restarted.balance(BOB)).isEqualTo(5);
+
+        restarted.settle("TRF_1").get();
+        restarted.release("TRF_2").get();
+        assertThat(restarted.balance(ALICE)).isEqualTo(60);
+        assertThat(restarted.balance(BOB)).isEqualTo(45);
+        restarted.stop();
+    }
+
+    @Test
+    void concurrentDebitsNeverOverdraw() throws Exception {
+        MemoryLedger ledger = start(Map.of(ALICE, 1_000L), 64);
+        AtomicInteger applied = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                workers.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 250; i++) {
+                        if (ledger.debit(ALICE, 1).get()) {
+                            applied.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(applied).hasValue(1_000);
+        assertThat(ledger.balance(ALICE)).isZero();
+        ledger.stop();
+    }
+
+    // The persisted snapshot is deliberately ignored: opening balances alone plus the journal
+    // must reproduce every movement.
+    @Test
+    void rebuildsBalancesFromTheJournal() throws Exception {
+        Map<UUID, Long> opening = Map.of(ALICE, 500L, BOB, 0L);
+        MemoryLedger ledger = start(opening, 64);
+        ledger.debit(ALICE, 200).get();
+        ledger.credit(BOB, 200).get();
+        ledger.debit(BOB, 50).get();
+        ledger.stop();
+
+        MemoryLedger restarted = start(opening, 64);
+        assertThat(restarted.balance(ALICE)).isEqualTo(300);
+        assertThat(restarted.balance(BOB)).isEqualTo(150);
+        restarted.stop();
+    }
+
+    // With room for four records, ten movements rewind the journal twice; each rewind must first
+    // persist what the overwritten records covered.
+    @Test
+    void persistsBeforeReusingAFullJournal() throws Exception {
+        MemoryLedger ledger = start(Map.of(ALICE, 0L), 4);
+        for (int i = 1; i <= 10; i++) {
+            ledger.credit(ALICE, i).get();
+        }
+        assertThat(snapshots).extracting(MemoryLedger.Snapshot::sequence).containsExactly(4L, 8L);
+        ledger.stop();
+
+        MemoryLedger.Snapshot rewound = snapshots.get(1);
+        assertThat(rewound.balances()).containsExactly(36); // 1 + 2 + ... + 8
+        MemoryLedger restarted = start(Map.of(ALICE, 36L), Map.of(), 4, rewound.sequence());
+        assertThat(restarted.balance(ALICE)).isEqualTo(55);
+        restarted.stop();
+    }
+
+    // Requested snapshots are persisted by the sequencer along with the ones it takes before a
+    // rewind, so the persister never sees an older snapshot after a newer one.
+    @Test
+    void persistsSnapshotsInSequenceOrder() throws Exception {
+        MemoryLedger ledger = start(Map.of(ALICE, 0L), 4);
+        List<Future<MemoryLedger.Snapshot>> requested = new ArrayList<>();
+        for (int i = 1; i <= 10; i++) {
+            ledger.credit(ALICE, i);
+            requested.add(ledger.snapshot());
+        }
+        for (Future<MemoryLedger.Snapshot> snapshot : requested) {
+            assertThat(snapshots).contains(snapshot.get());
+        }
+        ledger.stop();
+
+        assertThat(snapshots).extracting(MemoryLedger.Snapshot::sequence).isSorted();
+        assertThat(snapshots.get(snapshots.size() - 1).sequence()).isEqualTo(10);
+    }
+
+    @Test
+    void rejectsCommandsOnceStopped() throws Exception {
+        MemoryLedger ledger = start(Map.of(ALICE, 10L), 64);
+        ledger.stop();
+
+        assertThat(ledger.credit(ALICE, 1)).isCompletedExceptionally();
+        assertThat(snapshots).hasSize(1);
+    }
+
+    private MemoryLedger start(Map<UUID, Long> opening, int records) throws IOException {
+        return start(opening, Map.of(), records, 0);
+    }
+
+    private MemoryLedger start(Map<UUID, Long> opening, Map<String, MemoryLedger.Hold> holds, int records, long fromSequence)
+            throws IOException {
+        LedgerJournal journal = new LedgerJournal(directory.resolve("journal.bin"), records * 128, false);
+        journals.add(journal);
+        MemoryLedger ledger = new MemoryLedger(journal, opening, holds, fromSequence, snapshots::add, 64);
+        ledger.start();
+        return ledger;
+    }
+}
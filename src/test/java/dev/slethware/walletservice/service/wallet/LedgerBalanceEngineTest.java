@@ -0,0 +1,228 @@
+package dev.slethware.walletservice.service.wallet;
+
+import dev.slethware.walletservice.exception.BadRequestException;
+import dev.slethware.walletservice.models.entity.BalanceCheckpoint;
+import dev.slethware.walletservice.repository.BalanceCheckpointRepository;
+import dev.slethware.walletservice.service.ledger.LedgerCheckpointJob;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Exercises the ledger engine against real postings. Needs a Postgres database in DB_URL,
+// DB_USERNAME and DB_PASSWORD; the postings and checkpoints it creates are removed afterwards.
+@EnabledIfEnvironmentVariable(named = "DB_URL", matches = ".+")
+@SpringBootTest(properties = {
+        "wallet.balance-engine=ledger",
+        "wallet.ledger.checkpoint-lag=5m",
+        "spring.jpa.show-sql=false",
+        "jwt.secret=ledger-engine-test-secret-with-at-least-256-bits",
+        "api-key.pepper=ledger-engine-test-pepper",
+        "google.client-id=test",
+        "google.client-secret=test",
+        "google.redirect-uri=http://localhost/callback",
+        "paystack.secret-key=test",
+        "reference.single-instance=true"
+})
+class LedgerBalanceEngineTest {
+
+    @Autowired
+    private LedgerBalanceEngine ledgerBalanceEngine;
+
+    @Autowired
+    private LedgerCheckpointJob ledgerCheckpointJob;
+
+    @Autowired
+    private BalanceCheckpointRepository balanceCheckpointRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final List<UUID> accounts = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM postings WHERE reference LIKE 'LEDGER_TEST_%'");
+        balanceCheckpointRepository.deleteAllById(accounts);
+    }
+
+    // Postings older than the lag are folded into the checkpoint; the newer one stays outside it
+    // and is still counted once on top of it.
+    @Test
+    void checkpointFoldsPostingsOlderThanTheLag() {
+        UUID account = account();
+        LocalDateTime now = LocalDateTime.now();
+        post(account, 100, now.minusMinutes(20));
+        post(account, 50, now.minusMinutes(10));
+        post(account, 25, now.minusMinutes(1));
+
+        LocalDateTime before = databaseTime();
+        ledgerCheckpointJob.advanceCheckpoints();
+        LocalDateTime after = databaseTime();
+        ledgerCheckpointJob.advanceCheckpoints();
+
+        BalanceCheckpoint checkpoint = balanceCheckpointRepository.findById(account).orElseThrow();
+        assertThat(checkpoint.getBalance()).isEqualTo(150);
+        assertThat(checkpoint.getWatermark()).isBetween(before.minusMinutes(5).minusSeconds(1), after.minusMinutes(5));
+
+        debit(account, 175);
+        assertThatThrownBy(() -> debit(account, 1)).isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void advancingFoldsOnTopOfTheExistingCheckpoint() {
+        UUID account = account();
+        LocalDateTime base = LocalDateTime.now().minusHours(1).truncatedTo(ChronoUnit.SECONDS);
+        post(account, 100, base.minusMinutes(10));
+        post(account, -30, base.minusMinutes(5));
+        balanceCheckpointRepository.advanceTo(base);
+
+        post(account, 40, base.plusMinutes(1));
+        post(account, 7, base.plusMinutes(10));
+        balanceCheckpointRepository.advanceTo(base.plusMinutes(5));
+
+        BalanceCheckpoint checkpoint = balanceCheckpointRepository.findById(account).orElseThrow();
+        assertThat(checkpoint.getBalance()).isEqualTo(110);
+        assertThat(checkpoint.getWatermark()).isEqualTo(base.plusMinutes(5));
+
+        debit(account, 117);
+        assertThatThrownBy(() -> debit(account, 1)).isInstanceOf(BadRequestException.class);
+    }
+
+    // The credit's transaction is still open when the checkpoint advances, so its posting is not
+    // visible yet. The watermark stops at that transaction's start, which is the posting's stamp, so
+    // the posting is counted once it commits instead of falling behind the watermark.
+    @Test
+    void postingsOfOpenTransactionsAreNotSkipped() throws Exception {
+        UUID account = account();
+        post(account, 100, LocalDateTime.now().minusHours(1));
+        LedgerCheckpointJob withoutLag = new LedgerCheckpointJob(balanceCheckpointRepository, jdbcTemplate, Duration.ZERO);
+
+        CountDownLatch credited = new CountDownLatch(1);
+        CountDownLatch advanced = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> credit = executor.submit(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                ledgerBalanceEngine.credit(account, 50, reference());
+                // Begins the database transaction; the postings themselves are only flushed at commit
+                jdbcTemplate.queryForObject("SELECT 1", Integer.class);
+                credited.countDown();
+                await(advanced);
+            }));
+            await(credited);
+            sleep(50);
+            withoutLag.advanceCheckpoints();
+            advanced.countDown();
+            credit.get();
+        } finally {
+            executor.shutdownNow();
+        }
+        withoutLag.advanceCheckpoints();
+
+        debit(account, 150);
+        assertThatThrownBy(() -> debit(account, 1)).isInstanceOf(BadRequestException.class);
+    }
+
+    // Each debit holds the account's advisory lock until it commits, so the second one reads the
+    // balance the first left behind instead of the same 100.
+    @Test
+    void concurrentDebitsCannotSpendTheSameFunds() throws Exception {
+        UUID account = account();
+        post(account, 100, LocalDateTime.now().minusHours(1));
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<Boolean>> debits = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                debits.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                            ledgerBalanceEngine.debit(account, 70, reference());
+                            sleep(200);
+                        });
+                        return true;
+                    } catch (BadRequestException e) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+
+            int succeeded = 0;
+            for (Future<Boolean> debit : debits) {
+                succeeded += debit.get() ? 1 : 0;
+            }
+            assertThat(succeeded).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        debit(account, 30);
+        assertThatThrownBy(() -> debit(account, 1)).isInstanceOf(BadRequestException.class);
+    }
+
+    private UUID account() {
+        UUID account = UUID.randomUUID();
+        accounts.add(account);
+        return account;
+    }
+
+    private void post(UUID account, long amount, LocalDateTime createdAt) {
+        jdbcTemplate.update("INSERT INTO postings (id, journal_id, account_id, amount, reference, created_at) " +
+                        "VALUES (?, ?, ?, ?, ?, ?)",
+                UUID.randomUUID(), UUID.randomUUID(), account, amount, reference(), Timestamp.valueOf(createdAt));
+    }
+
+    private void debit(UUID account, long amount) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(
+                status -> ledgerBalanceEngine.debit(account, amount, reference()));
+    }
+
+    private static String reference() {
+        return "LEDGER_TEST_" + UUID.randomUUID();
+    }
+
+    private LocalDateTime databaseTime() {
+        return jdbcTemplate.queryForObject("SELECT localtimestamp", LocalDateTime.class);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
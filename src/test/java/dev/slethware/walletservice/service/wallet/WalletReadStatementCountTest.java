@@ -0,0 +1,136 @@
+package dev.slethware.walletservice.service.wallet;
+
+import dev.slethware.walletservice.models.dtos.response.ApiResponse;
+import dev.slethware.walletservice.models.dtos.response.TransactionCursorPage;
+import dev.slethware.walletservice.models.entity.Transaction;
+import dev.slethware.walletservice.models.entity.User;
+import dev.slethware.walletservice.models.entity.Wallet;
+import dev.slethware.walletservice.models.enums.TransactionStatus;
+import dev.slethware.walletservice.models.enums.TransactionType;
+import dev.slethware.walletservice.repository.TransactionRepository;
+import dev.slethware.walletservice.repository.UserRepository;
+import dev.slethware.walletservice.repository.WalletRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Counts the SQL statements Hibernate prepares for each read endpoint's service call. Needs a
+// Postgres database in DB_URL, DB_USERNAME and DB_PASSWORD; the rows it creates are removed afterwards.
+@EnabledIfEnvironmentVariable(named = "DB_URL", matches = ".+")
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.show-sql=false",
+        "jwt.secret=statement-count-test-secret-with-at-least-256-bits",
+        "api-key.pepper=statement-count-test-pepper",
+        "google.client-id=test",
+        "google.client-secret=test",
+        "google.redirect-uri=http://localhost/callback",
+        "paystack.secret-key=test",
+        "reference.single-instance=true"
+})
+class WalletReadStatementCountTest {
+
+    private static final int TRANSACTIONS = 25;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private User user;
+    private final List<Transaction> transactions = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        user = new User();
+        user.setEmail("statements-" + UUID.randomUUID() + "@example.com");
+        user.setPassword("unused");
+        user = userRepository.save(user);
+        walletService.createWalletForUser(user);
+        Wallet wallet = walletRepository.findByUserId(user.getId()).orElseThrow();
+
+        for (int i = 0; i < TRANSACTIONS; i++) {
+            transactions.add(Transaction.builder()
+                    .wallet(wallet)
+                    .type(TransactionType.DEPOSIT)
+                    .amount(1000L + i)
+                    .status(TransactionStatus.SUCCESS)
+                    .reference("STMT_" + UUID.randomUUID())
+                    .metadata(new HashMap<>())
+                    .build());
+        }
+        transactionRepository.saveAll(transactions);
+
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        transactionRepository.deleteAll(transactions);
+        walletRepository.findByUserId(user.getId()).ifPresent(walletRepository::delete);
+        userRepository.delete(user);
+    }
+
+    @Test
+    void transactionPageRunsWalletLookupPageAndCountOnly() {
+        walletService.getTransactions(PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "createdAt")));
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void cursorPagesRunTwoStatementsEach() {
+        ApiResponse<TransactionCursorPage> first = walletService.getTransactionsByCursor(null, 20);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+
+        statistics.clear();
+        ApiResponse<TransactionCursorPage> second = walletService.getTransactionsByCursor(first.data().nextCursor(), 20);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(first.data().transactions()).hasSize(20);
+        assertThat(second.data().transactions()).hasSize(TRANSACTIONS - 20);
+    }
+
+    @Test
+    void depositStatusRunsOneStatement() {
+        walletService.getDepositStatus(transactions.get(0).getReference());
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+}
@@ -0,0 +1,85 @@
+package dev.slethware.walletservice.utility;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MpscRingBufferTest {
+
+    private static final int PRODUCERS = 4;
+    private static final int PER_PRODUCER = 200_000;
+
+    @Test
+    void rejectsCapacityThatIsNotAPowerOfTwo() {
+        assertThatThrownBy(() -> new MpscRingBuffer<>(100)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void drainsInClaimOrderUpToMax() {
+        MpscRingBuffer<Integer> ring = new MpscRingBuffer<>(8);
+        for (int i = 0; i < 5; i++) {
+            ring.put(i);
+        }
+
+        List<Integer> drained = new ArrayList<>();
+        assertThat(ring.drainTo(drained, 3)).isEqualTo(3);
+        assertThat(ring.isEmpty()).isFalse();
+        assertThat(ring.drainTo(drained, 10)).isEqualTo(2);
+
+        assertThat(drained).containsExactly(0, 1, 2, 3, 4);
+        assertThat(ring.isEmpty()).isTrue();
+        assertThat(ring.drainTo(drained, 10)).isZero();
+    }
+
+    // A small ring makes producers wrap around and wait on the consumer many times over
+    @Test
+    void deliversEveryElementOnceAndInOrderPerProducer() throws Exception {
+        MpscRingBuffer<Long> ring = new MpscRingBuffer<>(64);
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(PRODUCERS);
+        try {
+            List<Future<?>> producers = new ArrayList<>();
+            for (int p = 0; p < PRODUCERS; p++) {
+                long producer = p;
+                producers.add(executor.submit(() -> {
+                    start.await();
+                    for (long i = 0; i < PER_PRODUCER; i++) {
+                        ring.put(producer << 32 | i);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+
+            long[] next = new long[PRODUCERS];
+            List<Long> drained = new ArrayList<>();
+            int received = 0;
+            while (received < PRODUCERS * PER_PRODUCER) {
+                drained.clear();
+                received += ring.drainTo(drained, 256);
+                for (long element : drained) {
+                    int producer = (int) (element >>> 32);
+                    assertThat(element & 0xffffffffL).isEqualTo(next[producer]);
+                    next[producer]++;
+                }
+            }
+
+            for (Future<?> producer : producers) {
+                producer.get();
+            }
+            assertThat(next).containsOnly(PER_PRODUCER);
+            assertThat(ring.isEmpty()).isTrue();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package dev.slethware.walletservice.utility;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ReferenceGeneratorTest {
+
+    private static final int THREADS = 8;
+    private static final int IDS_PER_THREAD = 200_000;
+
+    @Test
+    void generatesUniqueIdsAcrossThreads() throws Exception {
+        ReferenceGenerator generator = new ReferenceGenerator(7, false);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                workers.add(executor.submit(() -> {
+                    start.await();
+                    long previous = Long.MIN_VALUE;
+                    for (int i = 0; i < IDS_PER_THREAD; i++) {
+                        long id = generator.nextId();
+                        assertThat(id).isGreaterThan(previous);
+                        ids.add(id);
+                        previous = id;
+                    }
+                    return null;
+                }));
+            }
+
+            start.countDown();
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(ids).hasSize(THREADS * IDS_PER_THREAD);
+    }
+
+    @Test
+    void referencesSortInGenerationOrder() {
+        ReferenceGenerator generator = new ReferenceGenerator(1, false);
+
+        String previous = generator.next("TRF");
+        for (int i = 0; i < 100_000; i++) {
+            String reference = generator.next("TRF");
+            assertThat(reference).hasSize(17).isGreaterThan(previous);
+            previous = reference;
+        }
+    }
+
+    @Test
+    void nodesNeverCollide() {
+        ReferenceGenerator first = new ReferenceGenerator(1, false);
+        ReferenceGenerator second = new ReferenceGenerator(2, false);
+
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        for (int i = 0; i < 100_000; i++) {
+            ids.add(first.nextId());
+            ids.add(second.nextId());
+        }
+
+        assertThat(ids).hasSize(200_000);
+    }
+
+    @Test
+    void requiresNodeIdUnlessSingleInstance() {
+        assertThatThrownBy(() -> new ReferenceGenerator(-1, false)).isInstanceOf(IllegalStateException.class);
+        assertThat(new ReferenceGenerator(-1, true).next("DEP")).startsWith("DEP_");
+    }
+
+    @Test
+    void recoversGenerationTimeFromReference() {
+        ReferenceGenerator generator = new ReferenceGenerator(3, false);
+
+        long before = System.currentTimeMillis();
+        String reference = generator.next("DEP");
+        long after = System.currentTimeMillis();
+
+        assertThat(ReferenceGenerator.timestampOf(reference))
+                .hasValueSatisfying(generatedAt -> assertThat(generatedAt.toEpochMilli()).isBetween(before, after));
+        assertThat(ReferenceGenerator.timestampOf("DEP_legacy-reference")).isEmpty();
+        assertThat(ReferenceGenerator.timestampOf("DEP_1734567890123")).isEmpty();
+        assertThat(ReferenceGenerator.timestampOf("TRF_" + System.currentTimeMillis())).isEmpty();
+        assertThat(ReferenceGenerator.timestampOf("WDR_ZZZZZZZZZZZZZ")).isEmpty();
+        assertThat(ReferenceGenerator.timestampOf("7f3c2a")).isEmpty();
+    }
+}
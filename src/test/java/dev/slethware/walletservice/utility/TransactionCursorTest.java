@@ -0,0 +1,29 @@
+package dev.slethware.walletservice.utility;
+
+import dev.slethware.walletservice.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TransactionCursorTest {
+
+    @Test
+    void roundTripsThroughTheOpaqueToken() {
+        TransactionCursor cursor = new TransactionCursor(LocalDateTime.of(2025, 3, 1, 12, 30, 5, 123_456_000), UUID.randomUUID());
+
+        String token = cursor.encode();
+
+        assertThat(token).doesNotContain("=", "+", "/");
+        assertThat(TransactionCursor.decode(token)).isEqualTo(cursor);
+    }
+
+    @Test
+    void rejectsMalformedTokens() {
+        assertThatThrownBy(() -> TransactionCursor.decode("not a cursor")).isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> TransactionCursor.decode("bm8tc2VwYXJhdG9y")).isInstanceOf(BadRequestException.class);
+    }
+}